@@ -1,7 +1,8 @@
 package Algorithm;
 
 import Genetics.Chromosome;
-import Genetics.City;
+import Genetics.NeighbourLists;
+import Genetics.TourHash;
 
 import java.util.*;
 
@@ -18,23 +19,47 @@ import java.util.*;
  * @version 1.51 - Fixed error with ER crossover
  * @version 1.6 - Removed duplicate code and tidies crossover methods
  * @version 1.7 - Final bug fixes/checks
+ * @version 1.8 - Works on city indexes instead of city objects
+ * @version 1.9 - Edge recombination falls back to the nearest unused city instead of a random one
+ * @version 1.91 - Crossover can be carried out straight on route arrays supplied by the caller
+ * @version 1.92 - Scratch arrays come from a workspace reused between calls, edge recombination uses a flat edge table
+ * @version 1.93 - Children can be kept as the changes made to their parent's route
+ * @version 1.94 - PMX keeps the position of each city so it never searches the placeholder
+ * @version 1.95 - Cycle crossover marks the cities in the child and looks positions up instead of searching
+ * @version 1.96 - Alternating position crossover stamps the cities in the child instead of searching it
+ * @version 1.97 - First order crossover draws its cut points directly and fills the child in one pass over parent 2
+ * @version 1.98 - Edge recombination falls back to a random city again unless neighbour guided crossover is turned on
  * @see Chromosome
- * @see City
+ * @see NeighbourLists
+ * @see OperatorWorkspace
  */
 class Crossover {
 
+    private static final int EMPTY = -1;        //Marks a position in a child that has not been filled yet
+    private int[] changedPositions = new int[0];    //Positions where a child differs from its parent
+    private boolean neighbourGuided;                //Whether edge recombination falls back to the nearest unused city
+
     /**
      * Basic constructor to be called by the GA
      */
     Crossover(){}
 
 
+    /**
+     * Sets whether edge recombination falls back to the nearest unused city instead of a random one
+     * @param neighbourGuided - Whether edge recombination is neighbour guided
+     */
+    void setNeighbourGuided(boolean neighbourGuided){
+        this.neighbourGuided = neighbourGuided;
+    }
+
+
     /**
      * Create Parent in the correct format
      * @param parent - Parent to turn into the array format
      */
-    private City[] createParentArray(Chromosome parent){
-        return parent.getArray();
+    private int[] createParentArray(Chromosome parent){
+        return parent.getTour();
     }
 
 
@@ -42,8 +67,37 @@ class Crossover {
      * Create the children in the correct format
      * @param parent - The parent array
      */
-    private City[] createChildArray(City[] parent){
-        return new City[parent.length];
+    private int[] createChildArray(int[] parent){
+        int[] child = new int[parent.length];
+        Arrays.fill(child, EMPTY);
+        return child;
+    }
+
+
+    /**
+     * Turns a finished child route into a chromosome
+     * When routes are patched the child is kept as its changes over the parent, which only saves room
+     * when the parents were already close to each other
+     * @param parent - The parent the child takes after, gives the city table the child uses
+     * @param parentTour - The route of the parent
+     * @param child - The route of the child
+     * @return - The child as a chromosome
+     */
+    private Chromosome createChild(Chromosome parent, int[] parentTour, int[] child){
+        if(!parent.getCityTable().usesPatchedRoutes()){
+            return new Chromosome(parent.getCityTable(), child);
+        }
+        if(changedPositions.length < child.length){
+            changedPositions = new int[child.length];
+        }
+        int numOfChanged = 0;
+        for(int i=0; i<child.length; i++){
+            if(child[i] != parentTour[i]){
+                changedPositions[numOfChanged] = i;
+                numOfChanged++;
+            }
+        }
+        return parent.createPatchedChild(child, changedPositions, numOfChanged, -1, TourHash.UNKNOWN);
     }
 
 
@@ -69,8 +123,19 @@ class Crossover {
      */
     ArrayList<Chromosome> edgeRecombination(Chromosome parentOne, Chromosome parentTwo){
         ArrayList<Chromosome> children = new ArrayList<>();
-        children.add(carryOutEdge(parentOne, parentTwo));
-        children.add(carryOutEdge(parentTwo, parentOne));
+        //Create parents as arrays
+        int[] p1 = createParentArray(parentOne);
+        int[] p2 = createParentArray(parentTwo);
+
+        //Create children
+        int[] child1 = createChildArray(p1);
+        int[] child2 = createChildArray(p2);
+
+        NeighbourLists neighbourLists = neighbourGuided ? parentOne.getCityTable().getNeighbourLists() : null;
+        carryOutEdge(p1, p2, child1, neighbourLists);
+        carryOutEdge(p2, p1, child2, neighbourLists);
+        children.add(createChild(parentOne, p1, child1));
+        children.add(createChild(parentTwo, p2, child2));
         return children;
     }
 
@@ -83,16 +148,18 @@ class Crossover {
      */
     ArrayList<Chromosome> pmxCrossover(Chromosome p1, Chromosome p2){
         //Create parents
-        City[] parent1 = createParentArray(p1);
-        City[] parent2 = createParentArray(p2);
+        int[] parent1 = createParentArray(p1);
+        int[] parent2 = createParentArray(p2);
 
         //Create children
-        City[] child1 = createChildArray(parent1);
-        City[] child2 = createChildArray(parent2);
+        int[] child1 = createChildArray(parent1);
+        int[] child2 = createChildArray(parent2);
 
         //Turn the children into chromosomes
-        Chromosome childOne = carryOutPmxCrossover(parent1, parent2, child1);
-        Chromosome childTwo = carryOutPmxCrossover(parent2, parent1, child2);
+        carryOutPmxCrossover(parent1, parent2, child1);
+        carryOutPmxCrossover(parent2, parent1, child2);
+        Chromosome childOne = createChild(p1, parent1, child1);
+        Chromosome childTwo = createChild(p2, parent2, child2);
 
         //Return an array list
         return createChildrenTogether(childOne, childTwo);
@@ -107,16 +174,18 @@ class Crossover {
      */
     ArrayList<Chromosome> CCSCrossover(Chromosome p1, Chromosome p2){
         //Create parents
-        City[] parentOne = createParentArray(p1);
-        City[] parentTwo = createParentArray(p2);
+        int[] parentOne = createParentArray(p1);
+        int[] parentTwo = createParentArray(p2);
 
         //Create children
-        City[] child1 = createChildArray(parentOne);
-        City[] child2 = createChildArray(parentTwo);
+        int[] child1 = createChildArray(parentOne);
+        int[] child2 = createChildArray(parentTwo);
 
         //Turn the children into chromosomes
-        Chromosome childOne = carryOutCCSCrossover(parentOne, parentTwo, child1);
-        Chromosome childTwo = carryOutCCSCrossover(parentTwo, parentOne, child2);
+        carryOutCCSCrossover(parentOne, parentTwo, child1);
+        carryOutCCSCrossover(parentTwo, parentOne, child2);
+        Chromosome childOne = createChild(p1, parentOne, child1);
+        Chromosome childTwo = createChild(p2, parentTwo, child2);
 
         //Return an array list
         return createChildrenTogether(childOne, childTwo);
@@ -131,16 +200,18 @@ class Crossover {
      */
     ArrayList<Chromosome> alternativePosCrossover(Chromosome parent1, Chromosome parent2){
         //Create parents as arrays
-        City[] p1 = createParentArray(parent1);
-        City[] p2 = createParentArray(parent2);
+        int[] p1 = createParentArray(parent1);
+        int[] p2 = createParentArray(parent2);
 
         //Create children
-        City[] child1 = createChildArray(p1);
-        City[] child2 = createChildArray(p2);
+        int[] child1 = createChildArray(p1);
+        int[] child2 = createChildArray(p2);
 
         //Turn the children into chromosomes
-        Chromosome childOne = carryOutAPC(child1, p1, p2);
-        Chromosome childTwo = carryOutAPC(child2, p2, p1);
+        carryOutAPC(child1, p1, p2);
+        carryOutAPC(child2, p2, p1);
+        Chromosome childOne = createChild(parent1, p1, child1);
+        Chromosome childTwo = createChild(parent2, p2, child2);
 
         return createChildrenTogether(childOne, childTwo);
     }
@@ -154,16 +225,18 @@ class Crossover {
      */
     ArrayList<Chromosome> firstOrderCrossover(Chromosome parent1, Chromosome parent2){
         //Create parents as arrays
-        City[] p1 = createParentArray(parent1);
-        City[] p2 = createParentArray(parent2);
+        int[] p1 = createParentArray(parent1);
+        int[] p2 = createParentArray(parent2);
 
         //Create children
-        City[] child1 = createChildArray(p1);
-        City[] child2 = createChildArray(p2);
+        int[] child1 = createChildArray(p1);
+        int[] child2 = createChildArray(p2);
 
         //Turn the children into chromosomes
-        Chromosome childOne = carryOutOX1Crossover(child1, p1, p2);
-        Chromosome childTwo = carryOutOX1Crossover(child2, p2, p1);
+        carryOutOX1Crossover(child1, p1, p2);
+        carryOutOX1Crossover(child2, p2, p1);
+        Chromosome childOne = createChild(parent1, p1, child1);
+        Chromosome childTwo = createChild(parent2, p2, child2);
 
 
         //return as array list
@@ -171,21 +244,65 @@ class Crossover {
     }
 
 
+    /**
+     * Carries out a crossover method on two routes, writing the children into arrays supplied by the caller
+     * Used when the population is stored in flat arrays rather than as chromosomes
+     * @param crossoverType - The crossover method to use
+     * @param p1 - The first parent
+     * @param p2 - The second parent
+     * @param child1 - Array to write the first child into
+     * @param child2 - Array to write the second child into
+     * @param neighbourLists - The nearest neighbours of each city, null for edge recombination to fall back to a random city
+     */
+    void crossoverTours(GeneticAlgorithm.CrossoverType crossoverType, int[] p1, int[] p2, int[] child1, int[] child2, NeighbourLists neighbourLists){
+        //Clear out the children from any previous crossover
+        Arrays.fill(child1, EMPTY);
+        Arrays.fill(child2, EMPTY);
+        switch (crossoverType) {
+            case PMX:
+                carryOutPmxCrossover(p1, p2, child1);
+                carryOutPmxCrossover(p2, p1, child2);
+                break;
+            case CCO:
+                carryOutCCSCrossover(p1, p2, child1);
+                carryOutCCSCrossover(p2, p1, child2);
+                break;
+            case APC:
+                carryOutAPC(child1, p1, p2);
+                carryOutAPC(child2, p2, p1);
+                break;
+            case OX1:
+                carryOutOX1Crossover(child1, p1, p2);
+                carryOutOX1Crossover(child2, p2, p1);
+                break;
+            case ERC:
+                carryOutEdge(p1, p2, child1, neighbourLists);
+                carryOutEdge(p2, p1, child2, neighbourLists);
+                break;
+        }
+    }
+
+
     /**
      * Carries out the PMX crossover method
      * @param parent1 - first parent
      * @param parent2 - Second parent
      * @param child1 - The child that will be produced
-     * @return - The child as a chromosome
      */
-    private Chromosome carryOutPmxCrossover(City[] parent1, City[] parent2, City[] child1){
-        Random random = new Random();
+    void carryOutPmxCrossover(int[] parent1, int[] parent2, int[] child1){
+        OperatorWorkspace workspace = OperatorWorkspace.get(parent1.length);
+        Random random = workspace.getRandom();
 
         //Create a random point in the parent arrays to transfer from parent to child
         int crossOverPoint = random.nextInt(parent1.length);
 
-        //Create a placeholder which originally is the same as parent 1
-        City[] placeHolderList1 = parent1.clone();
+        //Create a placeholder which originally is the same as parent 1, and the position of each city in it
+        int[] placeHolderList1 = workspace.getPlaceholder();
+        int[] positions = workspace.getPositions();
+        System.arraycopy(parent1, 0, placeHolderList1, 0, parent1.length);
+        for(int i=0; i<parent1.length; i++){
+            positions[parent1[i]] = i;
+        }
 
         //Loop through the arrays up to the crossover point
         for(int i=0; i<crossOverPoint; i++){
@@ -193,25 +310,16 @@ class Crossover {
             //insert the gene in parent 2 into child 1
             child1[i] = parent2[i];
 
-            //Temp variable to store the city in parent 2
-            City toSwap = parent2[i];
-
-            //Loop through parent 1 to find the temporary city
-            for(int j=0; j<parent1.length; j++){
-                //If found, swap over the position of the temp city in parent 1 with the position it is in in parent 2
-                if(placeHolderList1[j].equals(toSwap)){
-                    swap(placeHolderList1, i, j);
-                    break;
-                }
-            }
+            //Swap over the position of the city from parent 2 in the placeholder with the position it is in in parent 2
+            int j = positions[parent2[i]];
+            swap(placeHolderList1, i, j);
+            positions[placeHolderList1[i]] = i;
+            positions[placeHolderList1[j]] = j;
         }
 
         //Add the rest of the cities in the placeholder list to the child
         if (parent1.length - crossOverPoint >= 0)
             System.arraycopy(placeHolderList1, crossOverPoint, child1, crossOverPoint, parent1.length - crossOverPoint);
-
-        //Turn the children into chromosomes
-        return new Chromosome(child1, false);
     }
 
 
@@ -220,8 +328,8 @@ class Crossover {
      * @param i - First element to swap
      * @param j - Second element to swap
      */
-    private void swap(City[] list, int i, int j){
-        City temp = list[i];
+    private void swap(int[] list, int i, int j){
+        int temp = list[i];
         list[i] = list[j];
         list[j] = temp;
     }
@@ -232,39 +340,43 @@ class Crossover {
      * @param parentOne - The first parent used to create the children
      * @param parentTwo - The second parent used to create children
      * @param child - Child to be formed
-     * @return - An array of the two children created
      */
-    private Chromosome carryOutCCSCrossover(City[] parentOne, City[] parentTwo, City[] child){
-
+    void carryOutCCSCrossover(int[] parentOne, int[] parentTwo, int[] child){
+        OperatorWorkspace workspace = OperatorWorkspace.get(parentOne.length);
+        boolean[] inChild = workspace.getInChild(parentOne.length);
+
+        //Position of each city in parent 1, so following the cycle never searches the parent
+        int[] positionsInP1 = workspace.getPositions();
+        for(int i=0; i<parentOne.length; i++){
+            positionsInP1[parentOne[i]] = i;
+        }
 
         boolean isCycle = true;
         int indexToCheck = 0;
         //While we are still in the cycle
         while(isCycle){
             //Get the city from parent 1
-            City chromeToAdd = parentOne[indexToCheck];
+            int chromeToAdd = parentOne[indexToCheck];
             //Check to see if city is already in the child array
-            if(cityInRoute(chromeToAdd, child)){
+            if(inChild[chromeToAdd]){
                 //If so, the cycle is over
                 isCycle = false;
             } else {
                 //If not, add the city to the child in the same position as it is seen in the parent
-                child[indexToCheck] = parentOne[indexToCheck];
-                //Look for the city you have just added in parent 2, return the index in which that city is found in parent 2
-                indexToCheck = searchForCity(parentOne, parentTwo[indexToCheck]);
+                child[indexToCheck] = chromeToAdd;
+                inChild[chromeToAdd] = true;
+                //Look up where the city in parent 2 at this position is found in parent 1
+                indexToCheck = positionsInP1[parentTwo[indexToCheck]];
             }
         }
 
         //Once cycle is broken
         for(int i=0; i<child.length; i++){
             //Add the empty elements with the elements in parent 2
-            if(child[i] == null){
+            if(child[i] == EMPTY){
                 child[i] = parentTwo[i];
             }
         }
-
-        //Add to an array list to return
-        return new Chromosome(child, false);
     }
 
 
@@ -273,35 +385,38 @@ class Crossover {
      * @param child1 - The child being created
      * @param p1 - The first parent
      * @param p2 - The second parent
-     * @return - The child in chromosome format
      */
-    private Chromosome carryOutAPC(City[] child1, City[] p1, City[] p2){
+    void carryOutAPC(int[] child1, int[] p1, int[] p2){
+        //Cities in the child are marked with this child's stamp
+        OperatorWorkspace workspace = OperatorWorkspace.get(p1.length);
+        int[] stamps = workspace.getStamps();
+        int stamp = workspace.nextStamp();
+
         //Variables to keep track of positions in each array
         int childPositionMarker = 0;
         int parentPositionMarker = 0;
 
         //While the child chromosome is not full
-        while(child1[p1.length - 1] == null){
+        while(childPositionMarker < p1.length){
             //Get city from index of parent pointer
-            City selectedCity = p1[parentPositionMarker];
+            int selectedCity = p1[parentPositionMarker];
             //Check to see if city is already in child
-            if(!(cityInRoute(selectedCity, child1))){
+            if(stamps[selectedCity] != stamp){
                 //If not add it to child in the same position and move along one
                 child1[childPositionMarker] = selectedCity;
+                stamps[selectedCity] = stamp;
                 childPositionMarker ++;
             }
             //Get city from parent pointer in parent 2
             selectedCity = p2[parentPositionMarker];
-            //Repeat process of searching and adding city to child
-            if(!(cityInRoute(selectedCity, child1))){
+            //Repeat process of checking and adding city to child
+            if(stamps[selectedCity] != stamp){
                 child1[childPositionMarker] = selectedCity;
+                stamps[selectedCity] = stamp;
                 childPositionMarker ++;
             }
             parentPositionMarker ++;
         }
-
-        //Turn the children into chromosomes
-        return new Chromosome(child1, false);
     }
 
 
@@ -310,140 +425,80 @@ class Crossover {
      * @param child1 - The child to be created
      * @param p1 - THe first parent
      * @param p2 - The second parent
-     * @return - The child in the chromosome format
      */
-    private Chromosome carryOutOX1Crossover(City[] child1, City[] p1, City[] p2){
-        Random random = new Random();
-        //Create first and second selection points
-        //Cities in-between these values will be directly passed down from the parent in the same order
-        int firstSelectionPoint = random.nextInt(p1.length);
-        int secondSelectionPoint = -1;
-        //Makes sure second point is greater than first for error checking
-        while(secondSelectionPoint == -1){
-            int point = random.nextInt(p1.length);
-            if(point >= firstSelectionPoint){
-                secondSelectionPoint = point;
-            }
-        }
-
-        //Add the cities from parent directly into child in-between the selection points
-        if (secondSelectionPoint + 1 - firstSelectionPoint >= 0)
-            System.arraycopy(p1, firstSelectionPoint, child1, firstSelectionPoint, secondSelectionPoint + 1 - firstSelectionPoint);
-
-        //Will fill up the child starting from the the right side after the second selection point
-        if((secondSelectionPoint+1) < p1.length){
-            for(int i=(secondSelectionPoint+1); i<p1.length; i++){
-                int index = i;
-                //While there is no city stored
-                while(child1[i] == null){
-                    City city = p2[index];
-                    //Check to see if the city is in the child
-                    if(!cityInRoute(city, child1)){
-                        child1[i] = city;
-                    }
-                    //Will move the index along to get the next value from the parent, but keep the child index the same
-                    index ++;
-                    //If the index reaches the end, go to the start of the parent
-                    if(index == p1.length){
-                        index = 0;
-                    }
-                }
-            }
-        }
+    void carryOutOX1Crossover(int[] child1, int[] p1, int[] p2){
+        OperatorWorkspace workspace = OperatorWorkspace.get(p1.length);
+        Random random = workspace.getRandom();
+        int numOfCities = p1.length;
 
-        int checkIndex = 0;
-        //Go through the parent up until the second selection point adding the cities that do not appear yet
-        for(int i=0; i<=secondSelectionPoint; i++){
-            City cityToCheck = p2[i];
-            //Add city if not in the child yet
-            if(!cityInRoute(cityToCheck, child1)){
-                child1[checkIndex] = cityToCheck;
-                //Keep separate pointer for child array
-                checkIndex ++;
-            }
+        //Create first and second selection points, the second is never before the first
+        //Cities in-between these values will be directly passed down from the parent in the same order
+        int firstSelectionPoint = random.nextInt(numOfCities);
+        int secondSelectionPoint = firstSelectionPoint + random.nextInt(numOfCities - firstSelectionPoint);
+
+        //Add the cities from parent directly into child in-between the selection points, marking each as in the child
+        int[] stamps = workspace.getStamps();
+        int stamp = workspace.nextStamp();
+        for(int i=firstSelectionPoint; i<=secondSelectionPoint; i++){
+            child1[i] = p1[i];
+            stamps[p1[i]] = stamp;
         }
 
-        //Return child
-        return new Chromosome(child1, false);
-    }
-
-
-    /**
-     * Function to see if a city is already in a child
-     * @param chromeToAdd - City to search for
-     * @param child1 - The current route of child 1
-     * @return - Whether the city is in the route already
-     */
-    private boolean cityInRoute(City chromeToAdd, City[] child1){
-        boolean isCityInRoute = false;
-        //Loop through child array
-        for (City city : child1) {
-            if (!(city == null)) {
-                //If city found return true
-                if (city.equals(chromeToAdd)) {
-                    isCityInRoute = true;
-                    break;
+        //Go through parent 2 once, starting after the second selection point and wrapping round to the start,
+        //filling the child from the same place with the cities that are not in it yet
+        int childIndex = secondSelectionPoint + 1 == numOfCities ? 0 : secondSelectionPoint + 1;
+        int parentIndex = childIndex;
+        for(int i=0; i<numOfCities; i++){
+            int city = p2[parentIndex];
+            if(stamps[city] != stamp){
+                child1[childIndex] = city;
+                childIndex ++;
+                if(childIndex == numOfCities){
+                    childIndex = 0;
                 }
             }
-        }
-        return isCityInRoute;
-    }
-
-
-    /**
-     * Searches for the position of a city in a parent
-     * @param parent - The parent to search in
-     * @param cityToFind - The city to search for
-     * @return - The index the city is in
-     */
-    private int searchForCity(City[] parent, City cityToFind){
-        int indexOfCityInFirstParent = -1;
-        for(int i=0; i<parent.length; i++){
-            if(parent[i].equals(cityToFind)){
-                indexOfCityInFirstParent = i;
-                break;
+            parentIndex ++;
+            if(parentIndex == numOfCities){
+                parentIndex = 0;
             }
         }
-        //Error check
-        if(indexOfCityInFirstParent == -1){
-            System.out.println(cityToFind.getxCoordinate() + " " + cityToFind.getyCoordinate());
-            System.out.println(Arrays.toString(parent));
-            System.out.println(parent.length);
-        }
-        return indexOfCityInFirstParent;
     }
 
 
     /**
      * Carries out edge recombination crossover
-     * @param parent1 - The first parent to use for crossover
-     * @param parent2 - The second parent to use for crossover
-     * @return - The child generated from the crossover
+     * @param p1 - The first parent to use for crossover
+     * @param p2 - The second parent to use for crossover
+     * @param child - The child generated from the crossover
+     * @param neighbourLists - The nearest neighbours of each city, used when a city has no edges left, null to pick a random city instead
      */
-    private Chromosome carryOutEdge(Chromosome parent1, Chromosome parent2){
-        //Create parents as arrays
-        City[] p1 = createParentArray(parent1);
-        City[] p2 = createParentArray(parent2);
-
-        //Create children
-        City[] child = createChildArray(p1);
-
-        HashMap<City, City[]> edges = new HashMap<>();
+    void carryOutEdge(int[] p1, int[] p2, int[] child, NeighbourLists neighbourLists){
+        int numOfCities = p1.length;
+        OperatorWorkspace workspace = OperatorWorkspace.get(numOfCities);
+
+        //Neighbours of each city, stored flat with a fixed amount of space for each city
+        int[] edges = workspace.getEdges();
+        int[] edgeCounts = workspace.getEdgeCounts();
+        int maxEdges = OperatorWorkspace.getMaxEdges();
+
+        //Position of each city in parent 2, so the city does not need searching for
+        int[] positionsInP2 = workspace.getPositions();
+        for(int i=0; i<numOfCities; i++){
+            positionsInP2[p2[i]] = i;
+        }
 
-        //Put the cities in the map keys
-        for(int i=0; i<p1.length; i++){
-            City city = p1[i];
-            City[] neighbours = getIndexes(i, p1, p2);
-            edges.put(city, neighbours);
+        //Put the neighbours of each city in the table
+        for(int i=0; i<numOfCities; i++){
+            addEdges(i, p1, p2, positionsInP2, edges, edgeCounts, maxEdges);
         }
 
         //Keep track of child array index
         int childIndex = 0;
 
         //Create random values and pick between 1 and 2
-        Random random = new Random();
+        Random random = workspace.getRandom();
         int pickParent = random.nextInt(2)+1;
-        City cityToRemove;
+        int cityToRemove;
         //If 1, get the first element from parent 1
         if(pickParent == 1){
             cityToRemove = p1[childIndex];
@@ -452,69 +507,50 @@ class Crossover {
             cityToRemove = p2[childIndex];
         }
 
+        //Keeps track of which cities are already in the child
+        boolean[] inChild = workspace.getInChild(numOfCities);
+
         //Append to child and move along
         child[childIndex] = cityToRemove;
+        inChild[cityToRemove] = true;
         childIndex++;
 
-        while (childIndex < p1.length){
+        while (childIndex < numOfCities){
 
-            //Loop through map
-            for(Map.Entry<City, City[]> set : edges.entrySet()){
-                //Create list
-                ArrayList<City> neighbourArray = new ArrayList<>();
-                //Get values of the map relating to the key in the loop (Similar to i)
-                City[] cityArray = set.getValue();
-
-                //Add values to array list
-                for(int i=0; i<cityArray.length; i++){
-                    neighbourArray.add(i, cityArray[i]);
-                }
-
-                //Loop through array and search for city to remove
-                for(City city : neighbourArray){
-                    //If found remove from array list
-                    if(city.equals(cityToRemove)){
-                        neighbourArray.remove(cityToRemove);
-                        break;
-                    }
+            //The city that has just been added is only in the lists of its own neighbours, so remove it from those
+            int removedStart = cityToRemove * maxEdges;
+            for(int i=0; i<edgeCounts[cityToRemove]; i++){
+                int neighbour = edges[removedStart + i];
+                //A neighbour can be listed twice in a two city route, only remove once
+                if(indexOfEdge(edges, removedStart, i, neighbour) == EMPTY){
+                    removeEdge(neighbour, cityToRemove, edges, edgeCounts, maxEdges);
                 }
-
-                //Create new array and add the remaining values back from the array list
-                City[] updatedCityList = new City[neighbourArray.size()];
-                for (int i=0; i<neighbourArray.size(); i++){
-                    updatedCityList[i] = neighbourArray.get(i);
-                }
-
-                //Put the new array with the current key, update the map essentially
-                edges.put(set.getKey(), updatedCityList);
             }
 
-            //Get the array of the value that has been added to the child
-            City[] removedCityArray = edges.get(cityToRemove);
-
             //Set the best neighbour parameter
-            City bestNeighbour = null;
-            //If array is empty, pick a random value to be next gene
-            if(removedCityArray.length == 0){
-                //Pick random city
-                bestNeighbour = p1[random.nextInt(p1.length)];
-                while(cityInRoute(bestNeighbour, child)){
-                    bestNeighbour = p1[random.nextInt(p1.length)];
+            int bestNeighbour = EMPTY;
+            //If list is empty, pick the nearest city not used yet to be next gene, if neighbour guided
+            if(edgeCounts[cityToRemove] == 0){
+                if(neighbourLists != null){
+                    bestNeighbour = nearestUnusedCity(cityToRemove, inChild, neighbourLists);
+                }
+                //If there are no nearest cities left to use, pick a random city
+                while(bestNeighbour == EMPTY || inChild[bestNeighbour]){
+                    bestNeighbour = p1[random.nextInt(numOfCities)];
                 }
             } else {
-                //Loop through array
-                for(City neighbourToCheck : removedCityArray) {
-                    //Get array associated with current variable in map using it as key
-                    City[] neighToCheckArray = edges.get(neighbourToCheck);
+                //Loop through the neighbours of the city just added
+                for(int i=0; i<edgeCounts[cityToRemove]; i++) {
+                    int neighbourToCheck = edges[removedStart + i];
 
                     //If first value, make it the neighbour
-                    if(bestNeighbour == null){
+                    if(bestNeighbour == EMPTY){
                         bestNeighbour = neighbourToCheck;
                     } else {
-                        //If the array is smaller, it becomes the best neighbour
-                        if(neighToCheckArray.length < edges.get(bestNeighbour).length){
+                        //If the list is smaller, it becomes the best neighbour
+                        if(edgeCounts[neighbourToCheck] < edgeCounts[bestNeighbour]){
                             bestNeighbour = neighbourToCheck;
-                        } else if (neighToCheckArray.length == edges.get(bestNeighbour).length){
+                        } else if (edgeCounts[neighbourToCheck] == edgeCounts[bestNeighbour]){
                             //If it is the same, pick a random winner
                             int value = random.nextInt(2)+1;
                             if(value == 1){
@@ -526,56 +562,103 @@ class Crossover {
             }
             //Add to child chromosome
             child[childIndex] = bestNeighbour;
+            inChild[bestNeighbour] = true;
             //Make it the next value for the loop
             cityToRemove = bestNeighbour;
             //Increase child index
             childIndex++;
         }
+    }
 
-        //Turn the children into chromosomes
-        return new Chromosome(child, false);
+
+    /**
+     * Removes a city from the list of neighbours of another city, keeping the rest in order
+     * @param city - The city whose list is changed
+     * @param cityToRemove - The city to take out of the list
+     * @param edges - The edge table
+     * @param edgeCounts - The number of neighbours of each city
+     * @param maxEdges - The space for each city in the edge table
+     */
+    private void removeEdge(int city, int cityToRemove, int[] edges, int[] edgeCounts, int maxEdges){
+        int start = city * maxEdges;
+        int index = indexOfEdge(edges, start, edgeCounts[city], cityToRemove);
+        if(index != EMPTY){
+            System.arraycopy(edges, start + index + 1, edges, start + index, edgeCounts[city] - index - 1);
+            edgeCounts[city]--;
+        }
     }
 
 
     /**
-     * Gets the neighbours of each city from the two parents
+     * Finds a city in a list of neighbours in the edge table
+     * @param edges - The edge table
+     * @param start - Where the list starts in the table
+     * @param count - The number of neighbours in the list to search
+     * @param city - The city to search for
+     * @return - The index of the city in the list, or EMPTY if it is not there
+     */
+    private int indexOfEdge(int[] edges, int start, int count, int city){
+        for(int i=0; i<count; i++){
+            if(edges[start + i] == city){
+                return i;
+            }
+        }
+        return EMPTY;
+    }
+
+
+    /**
+     * Finds the closest city to a city that is not in the child yet
+     * Only the nearest neighbour list is checked, so no city may be found
+     * @param city - The city to look around
+     * @param inChild - Which cities are already in the child
+     * @param neighbourLists - The nearest neighbours of each city
+     * @return - The closest unused city, or EMPTY if all of the nearest cities are used
+     */
+    private int nearestUnusedCity(int city, boolean[] inChild, NeighbourLists neighbourLists){
+        for(int rank=0; rank<neighbourLists.getNumOfNeighbours(); rank++){
+            int neighbour = neighbourLists.getNeighbour(city, rank);
+            if(!inChild[neighbour]){
+                return neighbour;
+            }
+        }
+        return EMPTY;
+    }
+
+
+    /**
+     * Puts the neighbours of a city from the two parents into the edge table
      * @param index - Index of the city in the first parent
      * @param p1 - Parent 1
      * @param p2 - Parent 2
-     * @return - Array of cities that neighbour the chosen city in both of the parents' routes
+     * @param positionsInP2 - Position of each city in parent 2
+     * @param edges - The edge table
+     * @param edgeCounts - The number of neighbours of each city
+     * @param maxEdges - The space for each city in the edge table
      */
-    private City[] getIndexes(int index, City[] p1, City[] p2){
-        //Create array
-        ArrayList<City> neighbours = new ArrayList<>();
-        //Add the left and right neighbours of parent 1
-        neighbours.add(getLeftNeighbour(index, p1));
-        neighbours.add(getRightNeighbours(index,p1));
+    private void addEdges(int index, int[] p1, int[] p2, int[] positionsInP2, int[] edges, int[] edgeCounts, int maxEdges){
+        int city = p1[index];
+        int start = city * maxEdges;
 
-        City city = p1[index];
-        //Look for the city in the other parent and return the index
-        int otherParentIndex = searchForCity(p2, city);
+        //Add the left and right neighbours of parent 1
+        edges[start] = getLeftNeighbour(index, p1);
+        edges[start + 1] = getRightNeighbours(index, p1);
+        edgeCounts[city] = 2;
 
         //Get the left and right neighbours for the other parent
-        City leftNeigh = getLeftNeighbour(otherParentIndex, p2);
-        City rightNeigh = getRightNeighbours(otherParentIndex, p2);
+        int otherParentIndex = positionsInP2[city];
+        int leftNeigh = getLeftNeighbour(otherParentIndex, p2);
+        int rightNeigh = getRightNeighbours(otherParentIndex, p2);
 
         //Check if it has been added
-        if(!neighbours.contains(leftNeigh)){
-            neighbours.add(leftNeigh);
+        if(indexOfEdge(edges, start, edgeCounts[city], leftNeigh) == EMPTY){
+            edges[start + edgeCounts[city]++] = leftNeigh;
         }
 
         //Check if right neighbour has been added
-        if(!neighbours.contains(rightNeigh)){
-            neighbours.add(rightNeigh);
+        if(indexOfEdge(edges, start, edgeCounts[city], rightNeigh) == EMPTY){
+            edges[start + edgeCounts[city]++] = rightNeigh;
         }
-
-        //Create array, append and return
-        City[] neighboursArray = new City[neighbours.size()];
-        for(int i=0; i< neighboursArray.length; i++){
-            neighboursArray[i] = neighbours.get(i);
-        }
-
-        return neighboursArray;
     }
 
 
@@ -585,8 +668,8 @@ class Crossover {
      * @param parent - The route of the parent
      * @return - The city to the left of the element passed
      */
-    private City getLeftNeighbour(int index, City[] parent){
-        City leftNeighbour;
+    private int getLeftNeighbour(int index, int[] parent){
+        int leftNeighbour;
         //If element is first in the array, loop to the end
         if(index == 0){
             int endOfArray = (parent.length - 1);
@@ -605,8 +688,8 @@ class Crossover {
      * @param parent - The route of the parent
      * @return - The element to the right of the index value
      */
-    private City getRightNeighbours(int index, City[] parent){
-        City rightNeighbour;
+    private int getRightNeighbours(int index, int[] parent){
+        int rightNeighbour;
         //If element is at the end of the array, get first element
         if(index == (parent.length-1)){
             rightNeighbour = parent[0];
@@ -0,0 +1,250 @@
+package Algorithm;
+
+import org.testng.annotations.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import Genetics.Chromosome;
+import Genetics.City;
+import Genetics.CityTable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class containing tests revolving around the Crossover class
+ * Kept in the same package as Crossover so each crossover method can be tested on its own
+ * @author - Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see Crossover
+ */
+public class CrossoverTests {
+
+    /**
+     * Test for PMX crossover
+     * <p>
+     * Tests each child is one of the children the crossover point could give, every one of them turns up,
+     * and the children of random parents are always permutations
+     */
+    @Test
+    public void testPmxCrossover(){
+        Crossover crossover = new Crossover();
+        CityTable table = createCityTable(8);
+        Chromosome parentOne = new Chromosome(table, new int[] {0, 1, 2, 3, 4, 5, 6, 7});
+        Chromosome parentTwo = new Chromosome(table, new int[] {3, 7, 5, 1, 6, 0, 2, 4});
+
+        //The child for each crossover point, the first cities come from parent two with the rest swapped to fit
+        int[][] expected = {
+                {0, 1, 2, 3, 4, 5, 6, 7},
+                {3, 1, 2, 0, 4, 5, 6, 7},
+                {3, 7, 2, 0, 4, 5, 6, 1},
+                {3, 7, 5, 0, 4, 2, 6, 1},
+                {3, 7, 5, 1, 4, 2, 6, 0},
+                {3, 7, 5, 1, 6, 2, 4, 0},
+                {3, 7, 5, 1, 6, 0, 4, 2},
+                {3, 7, 5, 1, 6, 0, 2, 4}
+        };
+        boolean[] seen = new boolean[expected.length];
+        for (int i = 0; i < 500; i++) {
+            int[] child = crossover.pmxCrossover(parentOne, parentTwo).get(0).getTour();
+            int point = indexOf(expected, child);
+            assertTrue(point >= 0, "Unexpected PMX child " + Arrays.toString(child));
+            seen[point] = true;
+        }
+        for (boolean found : seen) {
+            assertTrue(found);
+        }
+
+        //Children of random parents visit every city once
+        CityTable larger = createCityTable(300);
+        for (int i = 0; i < 50; i++) {
+            for (Chromosome child : crossover.pmxCrossover(new Chromosome(larger, true), new Chromosome(larger, true))) {
+                assertTrue(isPermutation(child.getTour()));
+            }
+        }
+    }
+
+
+    /**
+     * Test for cycle crossover
+     * <p>
+     * Tests the first cycle is taken from the first parent and the rest from the second, even straight after
+     * edge recombination has used the same scratch arrays, and the children of random parents are permutations
+     */
+    @Test
+    public void testCycleCrossover(){
+        Crossover crossover = new Crossover();
+        CityTable table = createCityTable(8);
+        Chromosome parentOne = new Chromosome(table, new int[] {0, 1, 2, 3, 4, 5, 6, 7});
+        Chromosome parentTwo = new Chromosome(table, new int[] {2, 0, 1, 5, 3, 4, 7, 6});
+
+        for (int i = 0; i < 3; i++) {
+            //Edge recombination shares the scratch arrays, so runs first to leave them dirty
+            crossover.edgeRecombination(new Chromosome(table, true), new Chromosome(table, true));
+
+            //The first cycle is positions 0, 1 and 2, they keep their cities and the rest are swapped over
+            List<Chromosome> children = crossover.CCSCrossover(parentOne, parentTwo);
+            assertArrayEquals(children.get(0).getTour(), new int[] {0, 1, 2, 5, 3, 4, 7, 6});
+            assertArrayEquals(children.get(1).getTour(), new int[] {2, 0, 1, 3, 4, 5, 6, 7});
+        }
+
+        //Children of random parents visit every city once
+        CityTable larger = createCityTable(300);
+        for (int i = 0; i < 50; i++) {
+            for (Chromosome child : crossover.CCSCrossover(new Chromosome(larger, true), new Chromosome(larger, true))) {
+                assertTrue(isPermutation(child.getTour()));
+            }
+        }
+    }
+
+
+    /**
+     * Test for alternating position crossover
+     * <p>
+     * Tests the child takes cities from each parent in turn, and that crossing routes of different lengths one
+     * after another on the same thread never leaves a child with a city missing or repeated
+     */
+    @Test
+    public void testAlternatingPositionCrossover(){
+        Crossover crossover = new Crossover();
+
+        //Routes of different lengths, longest first so any cities marked by an earlier child would be seen
+        for (int numOfCities : new int[] {400, 7, 1, 120, 400, 2, 33}) {
+            CityTable table = createCityTable(numOfCities);
+            for (int i = 0; i < 5; i++) {
+                for (Chromosome child : crossover.alternativePosCrossover(new Chromosome(table, true), new Chromosome(table, true))) {
+                    assertEquals(child.getNumOfCities(), numOfCities);
+                    assertTrue(isPermutation(child.getTour()));
+                }
+            }
+
+            //Taking cities in turn from a route and its reverse
+            if (numOfCities == 7) {
+                Chromosome forwards = new Chromosome(table, new int[] {0, 1, 2, 3, 4, 5, 6});
+                Chromosome backwards = new Chromosome(table, new int[] {6, 5, 4, 3, 2, 1, 0});
+                List<Chromosome> children = crossover.alternativePosCrossover(forwards, backwards);
+                assertArrayEquals(children.get(0).getTour(), new int[] {0, 6, 1, 5, 2, 4, 3});
+                assertArrayEquals(children.get(1).getTour(), new int[] {6, 0, 5, 1, 4, 2, 3});
+            }
+        }
+    }
+
+
+    /**
+     * Test for first order crossover
+     * <p>
+     * Tests every child is a permutation that keeps a segment of the first parent in place, with the rest of
+     * the cities in the order they appear in the second parent, wrapping round from after the second cut
+     */
+    @Test
+    public void testFirstOrderCrossover(){
+        Crossover crossover = new Crossover();
+        CityTable table = createCityTable(8);
+        int[] first = {0, 1, 2, 3, 4, 5, 6, 7};
+        int[] second = {3, 7, 5, 1, 6, 0, 2, 4};
+        Chromosome parentOne = new Chromosome(table, first);
+        Chromosome parentTwo = new Chromosome(table, second);
+
+        //Cutting at 2 and 4 keeps 2, 3 and 4, then parent two from position 5 gives 0, 7, 5, 1 and 6
+        int[] cutAtTwoAndFour = {1, 6, 2, 3, 4, 0, 7, 5};
+        boolean seenCutAtTwoAndFour = false;
+        for (int i = 0; i < 2000; i++) {
+            List<Chromosome> children = crossover.firstOrderCrossover(parentOne, parentTwo);
+            int[] child = children.get(0).getTour();
+            assertTrue(isPermutation(child));
+            assertTrue(isFirstOrderChild(child, first, second), "Not a first order child " + Arrays.toString(child));
+            assertTrue(isFirstOrderChild(children.get(1).getTour(), second, first));
+            seenCutAtTwoAndFour |= Arrays.equals(child, cutAtTwoAndFour);
+        }
+        assertTrue(seenCutAtTwoAndFour);
+    }
+
+
+    /**
+     * Checks whether a child could have come from first order crossover
+     * Looks for a pair of cuts where the child keeps the first parent's cities between the cuts in place, and
+     * the rest of the child from after the second cut, wrapping round, follows the order of the second parent
+     * starting from after the second cut
+     * @param child - The child to check
+     * @param first - The parent the segment is kept from
+     * @param second - The parent the order of the rest is taken from
+     * @return - Whether there are cuts that give the child
+     */
+    private static boolean isFirstOrderChild(int[] child, int[] first, int[] second){
+        int numOfCities = child.length;
+        for (int firstCut = 0; firstCut < numOfCities; firstCut++) {
+            for (int secondCut = firstCut; secondCut < numOfCities; secondCut++) {
+                //The segment is kept in place
+                boolean segmentKept = true;
+                boolean[] inSegment = new boolean[numOfCities];
+                for (int i = firstCut; i <= secondCut; i++) {
+                    segmentKept &= child[i] == first[i];
+                    inSegment[first[i]] = true;
+                }
+                if (!segmentKept) {
+                    continue;
+                }
+
+                //The rest follows the second parent from after the second cut
+                boolean orderFollowed = true;
+                int childIndex = (secondCut + 1) % numOfCities;
+                for (int i = 1; i <= numOfCities; i++) {
+                    int city = second[(secondCut + i) % numOfCities];
+                    if (!inSegment[city]) {
+                        orderFollowed &= child[childIndex] == city;
+                        childIndex = (childIndex + 1) % numOfCities;
+                    }
+                }
+                if (orderFollowed) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Creates a city table with cities spread out along a line
+     * @param numOfCities - The number of cities
+     * @return - The city table
+     */
+    private static CityTable createCityTable(int numOfCities){
+        City[] cities = new City[numOfCities];
+        for (int i = 0; i < numOfCities; i++) {
+            cities[i] = new City(i * 10, (i * 37) % 100);
+        }
+        return new CityTable(cities);
+    }
+
+
+    /**
+     * Finds a route in a list of routes
+     * @param routes - The routes to look through
+     * @param route - The route to find
+     * @return - The index of the route, -1 if it is not there
+     */
+    private static int indexOf(int[][] routes, int[] route){
+        for (int i = 0; i < routes.length; i++) {
+            if (Arrays.equals(routes[i], route)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Checks a route visits every city once
+     * @param tour - The route to check
+     * @return - Whether the route is a permutation of the city indexes
+     */
+    private static boolean isPermutation(int[] tour){
+        boolean[] seen = new boolean[tour.length];
+        for (int city : tour) {
+            if (city < 0 || city >= tour.length || seen[city]) {
+                return false;
+            }
+            seen[city] = true;
+        }
+        return true;
+    }
+}
@@ -1,13 +1,21 @@
 package Algorithm;
 
 import Genetics.Chromosome;
+import Genetics.CityTable;
+import Genetics.DistanceCache;
+import Genetics.DistanceProvider;
+import Genetics.FitnessCache;
+import Genetics.NeighbourLists;
 import Genetics.Population;
+import Genetics.PopulationArena;
+import Genetics.PopulationView;
+import Genetics.TourHash;
+import Graphing.GenerationHistory;
 import Graphing.GraphPlot;
 import Graphing.TSPGraph;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.PriorityQueue;
+import java.util.Random;
 
 /**
  * Class to run the genetic algorithms for a set amount of generations
@@ -20,13 +28,34 @@ import java.util.PriorityQueue;
  * @version 1.5 - Added graphing
  * @version 1.51 - General code tidy and commenting
  * @version 1.6 - Final bug checks
+ * @version 1.7 - Offspring are measured as a batch once the generation is full
+ * @version 1.8 - Added arena mode where the population is kept in flat arrays that are reused each generation
+ * @version 1.9 - Elites are taken from the sorted population instead of a new priority queue
+ * @version 1.91 - Routes that are only mutated keep their length updated instead of being measured again
+ * @version 1.92 - Both children are added to the next generation and duplicate routes can be rejected
+ * @version 1.93 - Added an optional cache of route lengths
+ * @version 1.94 - Selection, crossover and mutation are created once instead of for every pairing
+ * @version 1.95 - Distances of each generation are kept in primitive histories that can be limited in size
+ * @version 1.96 - Children can be kept as changes over their parent's route to save memory on large instances
+ * @version 1.97 - Prints how often the distance cache was hit when there is one
+ * @version 1.98 - Tournament parents for a generation are drawn in one batch
+ * @version 1.99 - Roulette parents are drawn in a batch from a wheel built once per generation
+ * @version 2.0 - Every selection method draws a generation's parents in one batch
+ * @version 2.01 - Added stochastic universal sampling
+ * @version 2.02 - Parents are drawn through a selection strategy prepared once per generation, custom strategies can be used
+ * @version 2.03 - Notes that the fitness cache only helps routes whose hash is already known
+ * @version 2.04 - Mutation and edge recombination only use the nearest neighbours when neighbour guided operators are turned on
+ * @version 2.05 - Routes are hashed whenever there is a fitness cache, not only when rejecting duplicates
  * @see Population
+ * @see PopulationArena
  * @see Crossover
  * @see Mutation
  * @see Selection
+ * @see SelectionStrategy
  * @see Set
  */
 public class GeneticAlgorithm {
+    private static final int DUPLICATE_LIMIT = 2;          //Duplicates rejected per member of the population before they are let in
     //Parameters
     private Population population;                          //Current Population for current generation
     private Population initialPopulation;                   //Initial population assigned at start
@@ -34,17 +63,38 @@ public class GeneticAlgorithm {
     private int numOfElites;                                //Number of elites to pass directly down from current population to next population
     private double crossoverRate;                           //The chance of a crossover function being carried out
     private double mutationRate;                            //The chance of a mutation occurring
-    private SelectionType selectionType;                    //Selection method to use
+    private SelectionType selectionType;                    //Selection method to use, null when a custom strategy is used
+    private SelectionStrategy selectionStrategy;            //Strategy that draws the parents
     private CrossoverType crossoverType;                    //Crossover method being used
     private boolean multiSim;
+    private boolean arenaMode;                              //Whether the population is kept in a flat arena while running
+    private boolean rejectDuplicates;                       //Whether offspring with a route already in the next generation are turned away
+    private int fitnessCacheSize;                           //Number of route lengths to cache, 0 for no cache
+    private int historyLimit;                               //Most points to keep in each generation history, 0 for no limit
+    private boolean patchedRoutes;                          //Whether children are kept as changes over their parent's route
+    private boolean neighbourGuided;                        //Whether mutation and edge recombination use the nearest neighbours of each city
+
+    //Arena mode
+    private PopulationArena arena;                          //Flat store of the current and next generations
+    private final Random random = new Random();             //Random used to draw parents
+    private final Crossover crossover = new Crossover();    //Crossover reused for every pair of parents
+    private final Mutation mutation = new Mutation();       //Mutation reused for every child
+    private int[] parentOneTour;                            //Scratch route for the first parent
+    private int[] parentTwoTour;                            //Scratch route for the second parent
+    private int[] childOneTour;                             //Scratch route for the first child
+    private int[] childTwoTour;                             //Scratch route for the second child
+    private int[] parentIndexes = new int[0];               //Parents drawn in a batch for the generation being made
+    private int numOfParents;                               //Number of parents in the current batch
+    private int nextParent;                                 //The next parent in the batch to hand out
+    private boolean selectionPrepared;                      //Whether the selection strategy has been prepared for the generation being made
 
     //Results
     private int bestFirstGenDistance;                       //The shortest distance in the first generation
     private int bestLastDistance;                           //The shortest distance in the final generation
     private int averageFirstGenDistance;                    //The average distance in the first generations population
     private int averageLastGenDistance;                     //The average distance in the final generations population
-    private ArrayList<Integer> averageDistOfEachGen;        //Array containing the average distance of each generations population
-    private ArrayList<Integer> bestDistanceOfEachGen;       //Array containing the best distance of each generations population
+    private GenerationHistory averageDistOfEachGen;         //History of the average distance of each generations population
+    private GenerationHistory bestDistanceOfEachGen;        //History of the best distance of each generations population
 
 
     /**
@@ -60,12 +110,18 @@ public class GeneticAlgorithm {
         numOfElites = 10;
         mutationRate = 0.05;
         crossoverRate = 0.8;
-        selectionType = SelectionType.TOURNAMENT;
+        setSelectionType(SelectionType.TOURNAMENT);
         crossoverType = CrossoverType.PMX;
         multiSim = true;
+        arenaMode = false;
+        rejectDuplicates = false;
+        fitnessCacheSize = 0;
+        historyLimit = 0;
+        patchedRoutes = false;
+        setNeighbourGuided(false);
 
-        averageDistOfEachGen = new ArrayList<>();
-        bestDistanceOfEachGen = new ArrayList<>();
+        averageDistOfEachGen = new GenerationHistory();
+        bestDistanceOfEachGen = new GenerationHistory();
     }
 
 
@@ -99,7 +155,17 @@ public class GeneticAlgorithm {
         bestFirstGenDistance = population.getFittest();
         averageFirstGenDistance = population.getAverageFitness();
 
-        //Adds them to the list of generations
+        //Starts the histories with the first generation
+        resetHistories();
+    }
+
+
+    /**
+     * Empties the generation histories and records the first generation in them
+     */
+    private void resetHistories(){
+        averageDistOfEachGen.clear();
+        bestDistanceOfEachGen.clear();
         averageDistOfEachGen.add(averageFirstGenDistance);
         bestDistanceOfEachGen.add(bestFirstGenDistance);
     }
@@ -111,7 +177,7 @@ public class GeneticAlgorithm {
     public void run(){
         //Print details
         System.out.println();
-        System.out.println("SELECTION METHOD: " + getSelectionType());
+        System.out.println("SELECTION METHOD: " + selectionStrategy.getName());
         System.out.println("CROSSOVER METHOD USED: " + getCrossoverType());
         System.out.println();
 
@@ -119,12 +185,23 @@ public class GeneticAlgorithm {
         System.out.println("START AVERAGE FIT: " + getAverageFirstGenDistance());
         System.out.println();
 
+        prepareFitnessCache();
+        population.getCityTable().setPatchedRoutes(patchedRoutes);
+        DistanceProvider distances = population.getCityTable().getDistanceProvider();
+        if(distances instanceof DistanceCache) {
+            //Keeps the distances from the last run but counts this run on its own
+            ((DistanceCache) distances).resetCounters();
+        }
+        if(arenaMode) {
+            prepareArena();
+        }
+
         Chromosome bestRoute = null;
         TSPGraph displayRoute = null;
         //If single sim, load up the visual solver
         if(!multiSim) {
             displayRoute = new TSPGraph(population.getCities());
-            bestRoute = population.getTheFittest();
+            bestRoute = getCurrentFittestRoute();
             displayRoute.drawRoute(bestRoute);
             delay(5000);
         }
@@ -134,24 +211,32 @@ public class GeneticAlgorithm {
 
         for(int i=0; i<getNumOfGens(); i++){
             System.out.println("Generation: " + (i+1));
-            population = createNextGen();
-            //System.out.println(newPop);
-            //System.out.println(newPop.size());
+            int bestDistance;
+            int averageDistance;
+            if(arenaMode) {
+                createNextGenArena();
+                bestDistance = arena.getFittest();
+                averageDistance = arena.getAverageFitness();
+            } else {
+                population = createNextGen();
+                bestDistance = population.getFittest();
+                averageDistance = population.getAverageFitness();
+            }
 
             //Calculate the best distance found
-            System.out.println("Best: " + population.getFittest());
+            System.out.println("Best: " + bestDistance);
             //calculate average distance of pop
-            System.out.println("Average: " + population.getAverageFitness());
+            System.out.println("Average: " + averageDistance);
             System.out.println();
 
-            //Append to the relating list
-            averageDistOfEachGen.add(population.getAverageFitness());
-            //Append to relating list
-            bestDistanceOfEachGen.add(population.getFittest());
+            //Append to the relating history
+            averageDistOfEachGen.add(averageDistance);
+            //Append to relating history
+            bestDistanceOfEachGen.add(bestDistance);
 
             if(!multiSim) {
                 //Gets the best route in the population
-                Chromosome bestRouteLatestPop = population.getTheFittest();
+                Chromosome bestRouteLatestPop = getCurrentFittestRoute();
                 //Checks to see if the new route is better than previous
                 if (!bestRouteLatestPop.equals(bestRoute)) {
                     //If better update the window to show the new better route
@@ -162,11 +247,16 @@ public class GeneticAlgorithm {
 
             //If final generation, bet the best route fitness and average fitness
             if((i+1) == getNumOfGens()){
-                bestLastDistance = population.getFittest();
-                averageLastGenDistance = population.getAverageFitness();
+                bestLastDistance = bestDistance;
+                averageLastGenDistance = averageDistance;
             }
         }
 
+        //Turns the final generation back into chromosomes
+        if(arenaMode) {
+            population = arena.toPopulation();
+        }
+
         if(!multiSim) {
             finalResultPrint(startTime);
             graphResult();
@@ -177,6 +267,15 @@ public class GeneticAlgorithm {
             //Get the best distance from the final pop
             System.out.println("BEST DISTANCE FOUND: " + getBestLastDistance());
         }
+
+        //Print how often the cache saved measuring a route
+        FitnessCache fitnessCache = population.getCityTable().getFitnessCache();
+        if(fitnessCache != null) {
+            System.out.println(fitnessCache);
+        }
+        if(distances instanceof DistanceCache) {
+            System.out.println(distances);
+        }
     }
 
 
@@ -187,65 +286,197 @@ public class GeneticAlgorithm {
     private Population createNextGen(){
         //Creates the next population ready to assign values
         Population nexGeneration = new Population(population.size());
+        nexGeneration.setRejectDuplicates(rejectDuplicates);
+        nexGeneration.setHashRoutes(fitnessCacheSize > 0);
 
         //Gets the elites from the previous population
         carryOutElitism(nexGeneration);
+        clearParents();
 
-        //ArrayList<Chromosome> children = new ArrayList<Chromosome>();
-        HashSet<Chromosome> children = new HashSet<>();
+        //Offspring are held back until the generation is full so they can be measured in one pass
+        ArrayList<Chromosome> offspring = new ArrayList<>();
+        int rejected = 0;
         while(nexGeneration.size() < population.size()){
+            offspring.clear();
+            while(nexGeneration.size() + offspring.size() < population.size()){
+
+                //Select parents from previous population
+                Chromosome parentOne = carryOutSelection();
+                Chromosome parentTwo = carryOutSelection();
+
+                //Stops a parent being selected twice
+                boolean sameParent = true;
+                while(sameParent){
+                    if(!(parentOne.equals(parentTwo))){
+                        sameParent = false;
+                    } else {
+                        parentTwo = carryOutSelection();
+                    }
 
-            //Select parents from previous population
-            Chromosome parentOne = carryOutSelection();
-            Chromosome parentTwo = carryOutSelection();
+                }
 
-            //Stops a parent being selected twice
-            boolean sameParent = true;
-            while(sameParent){
-                if(!(parentOne.equals(parentTwo))){
-                    sameParent = false;
-                } else {
-                    parentTwo = carryOutSelection();
+                //Perform crossover
+                double chanceOfCrossOver = Math.random();
+                if(chanceOfCrossOver <= crossoverRate){
+                    ArrayList<Chromosome> newChildren = carryOutCrossover(parentOne,parentTwo);
+                    parentOne = newChildren.get(0);
+                    parentTwo = newChildren.get(1);
                 }
 
+                //Perform mutation
+                double chanceOfMutation1 = Math.random();
+                double chanceOfMutation2 = Math.random();
+                if(chanceOfMutation1 <= mutationRate){
+                    parentOne = mutation.mutateChrome(parentOne);
+                }
+                if(chanceOfMutation2 <= mutationRate){
+                    parentTwo = mutation.mutateChrome(parentTwo);
+                }
+
+                offspring.add(parentOne);
+                //Check to see if full
+                if(nexGeneration.size() + offspring.size() < population.size()){
+                    offspring.add(parentTwo);
+                }
             }
 
+            //Increases diversity by only allowing for different routes to be in the population
+            rejected += offspring.size() - nexGeneration.addAll(offspring);
+            if(rejected > population.size() * DUPLICATE_LIMIT){
+                //Population has converged too far to fill with different routes, so let duplicates in
+                nexGeneration.setRejectDuplicates(false);
+            }
+        }
+        return nexGeneration;
+    }
+
+
+    /**
+     * Sets up the cache of route lengths on the city table if one has been asked for
+     */
+    private void prepareFitnessCache(){
+        CityTable cityTable = population.getCityTable();
+        if(fitnessCacheSize <= 0) {
+            cityTable.setFitnessCache(null);
+        } else if(cityTable.getFitnessCache() == null || cityTable.getFitnessCache().getCapacity() != fitnessCacheSize) {
+            cityTable.setFitnessCache(new FitnessCache(fitnessCacheSize));
+        } else {
+            //Keeps the lengths from the last run but counts this run on its own
+            cityTable.getFitnessCache().resetCounters();
+        }
+    }
+
+
+    /**
+     * Loads the current population into the arena, reusing the arena from the last run if it is the same shape
+     */
+    private void prepareArena(){
+        if(arena != null && arena.fits(population)) {
+            arena.load(population);
+        } else {
+            arena = new PopulationArena(population);
+        }
+        //Routes need a hash to be looked up in the fitness cache
+        if(fitnessCacheSize > 0) {
+            arena.keepHashes();
+        }
+
+        int numOfCities = arena.getNumOfCities();
+        if(parentOneTour == null || parentOneTour.length != numOfCities) {
+            parentOneTour = new int[numOfCities];
+            parentTwoTour = new int[numOfCities];
+            childOneTour = new int[numOfCities];
+            childTwoTour = new int[numOfCities];
+        }
+    }
+
+
+    /**
+     * Creates the next generation in the arena using the current generation
+     * Routes are copied in and out of scratch arrays so no chromosomes are created
+     */
+    private void createNextGenArena(){
+        CityTable cityTable = population.getCityTable();
+        NeighbourLists neighbourLists = neighbourGuided ? cityTable.getNeighbourLists() : null;
+
+        //Gets the elites from the previous generation
+        arena.setRejectDuplicates(rejectDuplicates);
+        arena.copyElitesToNext(numOfElites);
+        clearParents();
+
+        int rejected = 0;
+        while(arena.getNextSize() < arena.size()){
+
+            //Select parents from previous generation
+            int parentOne = carryOutSelection(arena);
+            int parentTwo = carryOutSelection(arena);
+
+            //Stops a parent being selected twice
+            while(parentOne == parentTwo && arena.size() > 1){
+                parentTwo = carryOutSelection(arena);
+            }
+            arena.copyTour(parentOne, parentOneTour);
+            arena.copyTour(parentTwo, parentTwoTour);
+            int[] firstRoute = parentOneTour;
+            int[] secondRoute = parentTwoTour;
+            //Lengths and hashes stay known until crossover makes new routes
+            double firstLength = arena.getRouteLength(parentOne);
+            double secondLength = arena.getRouteLength(parentTwo);
+            long firstHash = arena.getTourHash(parentOne);
+            long secondHash = arena.getTourHash(parentTwo);
+
             //Perform crossover
             double chanceOfCrossOver = Math.random();
             if(chanceOfCrossOver <= crossoverRate){
-                ArrayList<Chromosome> newChildren = carryOutCrossover(parentOne,parentTwo);
-                parentOne = newChildren.get(0);
-                parentTwo = newChildren.get(1);
+                crossover.crossoverTours(crossoverType, parentOneTour, parentTwoTour, childOneTour, childTwoTour, neighbourLists);
+                firstRoute = childOneTour;
+                secondRoute = childTwoTour;
+                firstLength = Double.NaN;
+                secondLength = Double.NaN;
+                firstHash = TourHash.UNKNOWN;
+                secondHash = TourHash.UNKNOWN;
             }
 
             //Perform mutation
             double chanceOfMutation1 = Math.random();
             double chanceOfMutation2 = Math.random();
             if(chanceOfMutation1 <= mutationRate){
-                Mutation mutate = new Mutation();
-                parentOne = mutate.mutateChrome(parentOne);
+                firstLength += mutation.mutateTour(firstRoute, cityTable);
+                firstHash = updateHash(firstHash);
             }
             if(chanceOfMutation2 <= mutationRate){
-                Mutation mutate = new Mutation();
-                parentTwo = mutate.mutateChrome(parentTwo);
+                secondLength += mutation.mutateTour(secondRoute, cityTable);
+                secondHash = updateHash(secondHash);
             }
 
-            //Increases diversity by only allowing for different routes to be in the population
-            //if(!children.contains(parentOne)){
-                //children.add(parentOne);
-                //nexGeneration.add(parentOne);
-            //}
-
-            children.add(parentOne);
-            //Check to see if full
-            if(nexGeneration.size() < population.size()){
-                //if(!children.contains(parentTwo)){
-                    children.add(parentTwo);
-                    nexGeneration.add(parentTwo);
-                //}
+            //Duplicates are turned away by the arena if rejecting them
+            if(!arena.addNext(firstRoute, firstLength, firstHash)){
+                rejected++;
+            }
+            if(arena.getNextSize() < arena.size() && !arena.addNext(secondRoute, secondLength, secondHash)){
+                rejected++;
+            }
+            if(rejected > arena.size() * DUPLICATE_LIMIT){
+                //Population has converged too far to fill with different routes, so let duplicates in
+                arena.setRejectDuplicates(false);
             }
         }
-        return nexGeneration;
+
+        //Measures the new routes and makes them the current generation
+        arena.swap();
+    }
+
+
+    /**
+     * Updates a route hash after a mutation
+     * @param tourHash - The hash before the mutation
+     * @return - The hash after the mutation, or unknown if it was not known before
+     */
+    private long updateHash(long tourHash){
+        if(tourHash == TourHash.UNKNOWN){
+            return TourHash.UNKNOWN;
+        }
+        return tourHash + mutation.getHashChange();
     }
 
 
@@ -255,18 +486,12 @@ public class GeneticAlgorithm {
      * @param nextGeneration - The next population being created
      */
     private void carryOutElitism(Population nextGeneration){
-        PriorityQueue<Chromosome> priorityQueue = new PriorityQueue<>();
-        //Add population to priority queue to order chromosomes
-        for (Chromosome chromosome : population) {
-            priorityQueue.add(chromosome);
-        }
+        //Order the population once so the elites are at the front
+        population.sortByFitness();
 
         //Put elites in new population
-        for (int i = 0; i < numOfElites; i++) {
-
-            Chromosome chromosome = priorityQueue.poll();
-
-            nextGeneration.add(chromosome);
+        for (int i = 0; i < numOfElites && i < population.size(); i++) {
+            nextGeneration.add(population.get(i));
         }
     }
 
@@ -276,18 +501,65 @@ public class GeneticAlgorithm {
      * @return - The parent selected
      */
     private Chromosome carryOutSelection(){
-        Selection selection = new Selection();
-        Chromosome parentToBe = null;
-        if(selectionType == SelectionType.TOURNAMENT){
-            //Sample size for tournament selection
-            int tournamentSampleSize = 3;
-            parentToBe = selection.tournamentSelection(population, tournamentSampleSize);
-        } else if (selectionType == SelectionType.ROULETTE){
-            parentToBe = selection.rouletteWheelSelection(population);
-        } else if (selectionType == SelectionType.RANKED){
-            parentToBe = selection.rankedSelection(population);
+        return population.get(nextBatchParent(population));
+    }
+
+
+    /**
+     * Carries out the chosen selection method on the arena
+     * @param currentGen - The arena to select from
+     * @return - The index of the parent selected
+     */
+    private int carryOutSelection(PopulationArena currentGen){
+        return nextBatchParent(currentGen);
+    }
+
+
+    /**
+     * Gets the next parent from the batch drawn by the selection method
+     * A generation's worth of parents is drawn at once, with more drawn if duplicates use them up
+     * @param currentGen - The generation to select from
+     * @return - The index of the parent selected
+     */
+    private int nextBatchParent(PopulationView currentGen){
+        if(nextParent == numOfParents){
+            numOfParents = currentGen.size();
+            if(parentIndexes.length < numOfParents){
+                parentIndexes = new int[numOfParents];
+            }
+            if(!selectionPrepared){
+                selectionStrategy.prepare(currentGen);
+                selectionPrepared = true;
+            }
+            selectionStrategy.select(random, parentIndexes, numOfParents);
+            nextParent = 0;
         }
-        return parentToBe;
+        int parent = parentIndexes[nextParent];
+        nextParent++;
+        return parent;
+    }
+
+
+    /**
+     * Throws away any parents left from the last generation, as they index into a generation that has gone
+     * The selection strategy is prepared again for the new generation when its first parent is needed
+     */
+    private void clearParents(){
+        numOfParents = 0;
+        nextParent = 0;
+        selectionPrepared = false;
+    }
+
+
+    /**
+     * Gets the best route in the current generation
+     * @return - The best route
+     */
+    private Chromosome getCurrentFittestRoute(){
+        if(arenaMode) {
+            return arena.toChromosome(arena.getFittestIndex());
+        }
+        return population.getTheFittest();
     }
 
 
@@ -298,7 +570,6 @@ public class GeneticAlgorithm {
      * @return - The children produced
      */
     private ArrayList<Chromosome> carryOutCrossover(Chromosome parentOne, Chromosome parentTwo){
-        Crossover crossover = new Crossover();
         ArrayList<Chromosome> children = null;
         if(crossoverType == CrossoverType.CCO){
             children = crossover.CCSCrossover(parentOne, parentTwo);
@@ -434,18 +705,18 @@ public class GeneticAlgorithm {
 
     /**
      * Gets the average distance from each of the generations
-     * @return - A list of the average distances from each generation
+     * @return - A history of the average distances from each generation
      */
-    ArrayList<Integer> getAverageDistOfEachGen() {
+    GenerationHistory getAverageDistOfEachGen() {
         return averageDistOfEachGen;
     }
 
 
     /**
      * Gets the best distance of each generation
-     * @return - A list of best distances for each generation
+     * @return - A history of best distances for each generation
      */
-    ArrayList<Integer> getBestDistanceOfEachGen() {
+    GenerationHistory getBestDistanceOfEachGen() {
         return bestDistanceOfEachGen;
     }
 
@@ -457,6 +728,7 @@ public class GeneticAlgorithm {
         TOURNAMENT,
         RANKED,
         ROULETTE,
+        SUS,
     }
 
 
@@ -487,6 +759,31 @@ public class GeneticAlgorithm {
      */
     public void setSelectionType(SelectionType selectionType) {
         this.selectionType = selectionType;
+        this.selectionStrategy = Selection.create(selectionType.name());
+    }
+
+
+    /**
+     * Sets a selection strategy to use instead of one of the selection types
+     * The selection type is cleared as the strategy may not be one of them
+     * @param selectionStrategy - The strategy to draw parents with
+     */
+    public void setSelectionStrategy(SelectionStrategy selectionStrategy) {
+        if(selectionStrategy == null){
+            System.out.println("No selection strategy given, keeping " + this.selectionStrategy.getName());
+            return;
+        }
+        this.selectionType = null;
+        this.selectionStrategy = selectionStrategy;
+    }
+
+
+    /**
+     * Gets the selection strategy parents are drawn with
+     * @return - The selection strategy
+     */
+    public SelectionStrategy getSelectionStrategy() {
+        return selectionStrategy;
     }
 
     /**
@@ -513,9 +810,9 @@ public class GeneticAlgorithm {
     public void resetGA(){
         population = initialPopulation.copyPopulation();
         bestLastDistance = 0;
-        bestDistanceOfEachGen = new ArrayList<>();
         averageLastGenDistance = 0;
-        averageDistOfEachGen = new ArrayList<>();
+        //Histories are reused and start again from the first generation, which the population is reset to
+        resetHistories();
     }
 
 
@@ -523,7 +820,7 @@ public class GeneticAlgorithm {
      * Calls the graph plot class to display graph of the decrease in distance
      */
     private void graphResult(){
-        GraphPlot graphPlot = new GraphPlot("Graph For Distances", bestDistanceOfEachGen, numOfGens, averageDistOfEachGen);
+        GraphPlot graphPlot = new GraphPlot("Graph For Distances", bestDistanceOfEachGen, averageDistOfEachGen);
         graphPlot.pack();
         graphPlot.setVisible(true);
 
@@ -552,6 +849,124 @@ public class GeneticAlgorithm {
     }
 
 
+    /**
+     * Sets whether the population is kept in a flat arena while the algorithm runs
+     * @param arenaMode - Whether or not to use the arena
+     */
+    public void setArenaMode(boolean arenaMode) {
+        this.arenaMode = arenaMode;
+    }
+
+
+    /**
+     * Gets whether the population is kept in a flat arena while the algorithm runs
+     * @return - Whether or not the arena is used
+     */
+    public boolean isArenaMode() {
+        return arenaMode;
+    }
+
+
+    /**
+     * Sets whether offspring with a route already in the next generation are turned away
+     * @param rejectDuplicates - Whether or not to reject duplicate routes
+     */
+    public void setRejectDuplicates(boolean rejectDuplicates) {
+        this.rejectDuplicates = rejectDuplicates;
+    }
+
+
+    /**
+     * Gets whether offspring with a route already in the next generation are turned away
+     * @return - Whether or not duplicate routes are rejected
+     */
+    public boolean isRejectingDuplicates() {
+        return rejectDuplicates;
+    }
+
+
+    /**
+     * Sets how many route lengths are cached so routes made again do not need measuring
+     * Every new route is hashed so it can be looked up, the same as when duplicates are being rejected
+     * @param fitnessCacheSize - Number of route lengths to cache, 0 for no cache
+     */
+    public void setFitnessCacheSize(int fitnessCacheSize) {
+        this.fitnessCacheSize = fitnessCacheSize;
+    }
+
+
+    /**
+     * Gets how many route lengths are cached
+     * @return - Number of route lengths cached, 0 for no cache
+     */
+    public int getFitnessCacheSize() {
+        return fitnessCacheSize;
+    }
+
+
+    /**
+     * Sets the most points kept in the best and average distance histories
+     * Once a history is full neighbouring points are averaged so long runs take a fixed amount of memory
+     * @param historyLimit - Most points to keep, 0 for a point for every generation
+     */
+    public void setHistoryLimit(int historyLimit) {
+        this.historyLimit = Math.max(0, historyLimit);
+        averageDistOfEachGen = new GenerationHistory(this.historyLimit);
+        bestDistanceOfEachGen = new GenerationHistory(this.historyLimit);
+        resetHistories();
+    }
+
+
+    /**
+     * Sets whether children are kept as changes over their parent's route rather than full copies
+     * Only used when the population is kept as chromosomes, the arena always holds full routes
+     * @param patchedRoutes - Whether routes are patched
+     */
+    public void setPatchedRoutes(boolean patchedRoutes) {
+        this.patchedRoutes = patchedRoutes;
+    }
+
+
+    /**
+     * Checks whether children are kept as changes over their parent's route
+     * @return - Whether routes are patched
+     */
+    public boolean usesPatchedRoutes() {
+        return patchedRoutes;
+    }
+
+
+    /**
+     * Sets whether mutation and edge recombination are guided by the nearest neighbours of each city
+     * When turned on each mutation swap moves a near neighbour of a random city next to it, and edge recombination
+     * falls back to the nearest unused city, instead of both using random cities
+     * @param neighbourGuided - Whether the operators are neighbour guided
+     */
+    public void setNeighbourGuided(boolean neighbourGuided) {
+        this.neighbourGuided = neighbourGuided;
+        crossover.setNeighbourGuided(neighbourGuided);
+        mutation.setNeighbourGuided(neighbourGuided);
+    }
+
+
+    /**
+     * Checks whether mutation and edge recombination are guided by the nearest neighbours of each city
+     * @return - Whether the operators are neighbour guided
+     */
+    public boolean isNeighbourGuided() {
+        return neighbourGuided;
+    }
+
+
+    /**
+     * Gets the most points kept in the distance histories
+     * @return - Most points kept, 0 for no limit
+     */
+    public int getHistoryLimit() {
+        return historyLimit;
+    }
+
+
     /**
      * Get the average last generation distance
      * @return - THe average distance of the last generation
@@ -569,7 +984,7 @@ public class GeneticAlgorithm {
         System.out.println("*******************************************");
         System.out.println("Genetic Algorithm Finished");
         System.out.println("Genetic Algorithm Stats");
-        System.out.println("Selection Method: " + getSelectionType());
+        System.out.println("Selection Method: " + selectionStrategy.getName());
         System.out.println("Crossover Method: " + getCrossoverType());
         System.out.println("Crossover Rate: " + getCrossoverRate());
         System.out.println("Mutation Rate: " + getMutationRate());
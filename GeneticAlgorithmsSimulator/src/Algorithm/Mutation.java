@@ -1,28 +1,54 @@
 package Algorithm;
 
 import Genetics.Chromosome;
-import Genetics.City;
+import Genetics.CityTable;
+import Genetics.NeighbourLists;
+import Genetics.TourHash;
 
 import java.util.Random;
 
 /**
  * Class that can carry out mutation
- * Mutation method chosen: Swap mutation but looping through the whole chromosome
+ * Mutation method chosen: Swap mutation, which can instead move a city next to one of its nearest neighbours
  * @author Aaron Luckett (aal16)
  * @version 1.0 - Initial Creation
  * @version 1.1 - Added shuffle mutation
  * @version 1.2 - Changed mutation method to insertion mutation
  * @version 1.3 - Final bug checks
+ * @version 1.4 - Swaps city indexes instead of city objects
+ * @version 1.5 - Swaps bring a city next to one of its nearest neighbours instead of to a random place
+ * @version 1.6 - Mutation can be carried out straight on a route array
+ * @version 1.7 - Works out the change in distance from the swapped edges so the child does not need measuring again
+ * @version 1.8 - Works out the change in the route hash from the swapped edges as well
+ * @version 1.9 - Scratch arrays and random come from a workspace reused between calls
+ * @version 1.91 - Keeps track of the swapped positions so the child can be kept as changes over its parent
+ * @version 1.92 - Swaps two random cities again unless neighbour guided swaps are turned on
  * @see Chromosome
- * @see City
+ * @see CityTable
+ * @see NeighbourLists
  */
 class Mutation {
+    private static final int NUM_OF_SWAPS = 3;                          //Number of swaps made in each mutation
+    private long hashChange;                                            //Amount the route hash changed by in the last mutation
+    private final int[] changedPositions = new int[2 * NUM_OF_SWAPS];   //Positions swapped in the last mutation
+    private int numOfChanged;                                           //Number of positions swapped in the last mutation
+    private int[] patchTour = new int[0];                               //Scratch route used when the child is kept as changes
+    private boolean neighbourGuided;                                    //Whether swaps bring a city next to one of its nearest neighbours
 
     /**
      * Basic constructor to be able to access methods
      */
     Mutation(){}
 
+
+    /**
+     * Sets whether each swap brings a city next to one of its nearest neighbours instead of swapping two random cities
+     * @param neighbourGuided - Whether swaps are neighbour guided
+     */
+    void setNeighbourGuided(boolean neighbourGuided){
+        this.neighbourGuided = neighbourGuided;
+    }
+
     /**
      * Carries out the mutation method
      * Used to increase diversity throughout the population
@@ -30,29 +56,202 @@ class Mutation {
      * @return - The altered chromosome, with a different route
      */
     Chromosome mutateChrome(Chromosome toMutate){
-        //Creates an array of cities according to the route
-        City[] cities = toMutate.getArray();
+        CityTable cityTable = toMutate.getCityTable();
+        boolean patched = cityTable.usesPatchedRoutes();
+        //Creates an array of city indexes according to the route, only scratch if the child just keeps the changes
+        int[] cities;
+        if(patched){
+            if(patchTour.length != toMutate.getNumOfCities()){
+                patchTour = new int[toMutate.getNumOfCities()];
+            }
+            cities = patchTour;
+            toMutate.copyTour(cities);
+        } else {
+            cities = toMutate.getTour();
+        }
+        double change = mutateTour(cities, cityTable);
+
+        //Turn list into chromosome, its distance and hash are the parent's plus the change from the swaps
+        long tourHash = toMutate.hasTourHash() ? toMutate.getTourHash() + hashChange : TourHash.UNKNOWN;
+        double routeLength = toMutate.getRouteLength() + change;
+        if(patched){
+            return toMutate.createPatchedChild(cities, changedPositions, numOfChanged, routeLength, tourHash);
+        }
+        return new Chromosome(cityTable, cities, routeLength, tourHash);
+    }
+
+
+    /**
+     * Carries out the mutation method on a route array, changing it in place
+     * @param cities - The city indexes in order of travel
+     * @param cityTable - The table of cities the route indexes into
+     * @return - The change in the length of the route
+     */
+    double mutateTour(int[] cities, CityTable cityTable){
+        //Nearest neighbours are only needed, and only built, if swaps are neighbour guided
+        NeighbourLists neighbourLists = neighbourGuided ? cityTable.getNeighbourLists() : null;
+        //Keeps track of where each city is in the route
+        OperatorWorkspace workspace = OperatorWorkspace.get(cities.length);
+        int[] positions = workspace.getPositions();
+        for(int i=0; i<cities.length; i++){
+            positions[cities[i]] = i;
+        }
+
+        //Swaps cities over in the route
+        double change = 0;
+        hashChange = 0;
+        numOfChanged = 0;
+        Random random = workspace.getRandom();
+        for(int i=0; i<NUM_OF_SWAPS; i++){
+            int firstPosition = random.nextInt(cities.length);
+            int secondPosition;
+            if(neighbourLists != null && neighbourLists.getNumOfNeighbours() > 0){
+                //Moves a near neighbour of the city into the position after it
+                int neighbour = neighbourLists.getNeighbour(cities[firstPosition], random.nextInt(neighbourLists.getNumOfNeighbours()));
+                secondPosition = positions[neighbour];
+                firstPosition = (firstPosition + 1) % cities.length;
+            } else {
+                secondPosition = random.nextInt(cities.length);
+            }
+            change += swapChange(cities, positions, firstPosition, secondPosition, cityTable);
+        }
+        return change;
+    }
+
+
+    /**
+     * Swaps over two cities and works out how much the length of the route changed
+     * Only the edges either side of the two positions can change, so only those are measured
+     * @param cities - List of cities aka the route
+     * @param positions - Position of each city in the route, kept up to date
+     * @param firstCtyIndex - The index of the first city to swap
+     * @param secondCityIndex - The index of the second city to swap
+     * @param cityTable - The table of cities the route indexes into
+     * @return - The change in the length of the route
+     */
+    private double swapChange(int[] cities, int[] positions, int firstCtyIndex, int secondCityIndex, CityTable cityTable){
+        if(firstCtyIndex == secondCityIndex){
+            return 0;
+        }
+        int numOfCities = cities.length;
+        //The edges that start just before and at each position, two of them are the same edge if the cities are next to each other
+        int firstEdge = (firstCtyIndex + numOfCities - 1) % numOfCities;
+        int secondEdge = firstCtyIndex;
+        int thirdEdge = (secondCityIndex + numOfCities - 1) % numOfCities;
+        int fourthEdge = secondCityIndex;
+        boolean thirdRepeated = thirdEdge == firstEdge || thirdEdge == secondEdge;
+        boolean fourthRepeated = fourthEdge == firstEdge || fourthEdge == secondEdge;
+
+        double before = edgesLength(cities, firstEdge, secondEdge, thirdEdge, fourthEdge, thirdRepeated, fourthRepeated, cityTable);
+        long hashBefore = edgesHash(cities, firstEdge, secondEdge, thirdEdge, fourthEdge, thirdRepeated, fourthRepeated);
+        swap(cities, positions, firstCtyIndex, secondCityIndex);
+        changedPositions[numOfChanged++] = firstCtyIndex;
+        changedPositions[numOfChanged++] = secondCityIndex;
+        double after = edgesLength(cities, firstEdge, secondEdge, thirdEdge, fourthEdge, thirdRepeated, fourthRepeated, cityTable);
+        hashChange += edgesHash(cities, firstEdge, secondEdge, thirdEdge, fourthEdge, thirdRepeated, fourthRepeated) - hashBefore;
+        return after - before;
+    }
+
+
+    /**
+     * Adds up the length of the edges affected by a swap, counting each edge once
+     * @param cities - List of cities aka the route
+     * @param firstEdge - Position the first edge starts at
+     * @param secondEdge - Position the second edge starts at
+     * @param thirdEdge - Position the third edge starts at
+     * @param fourthEdge - Position the fourth edge starts at
+     * @param thirdRepeated - Whether the third edge is the same as one of the first two
+     * @param fourthRepeated - Whether the fourth edge is the same as one of the first two
+     * @param cityTable - The table of cities the route indexes into
+     * @return - The length of the edges
+     */
+    private double edgesLength(int[] cities, int firstEdge, int secondEdge, int thirdEdge, int fourthEdge,
+                               boolean thirdRepeated, boolean fourthRepeated, CityTable cityTable){
+        double length = edgeLength(cities, firstEdge, cityTable);
+        if(secondEdge != firstEdge){
+            length += edgeLength(cities, secondEdge, cityTable);
+        }
+        if(!thirdRepeated){
+            length += edgeLength(cities, thirdEdge, cityTable);
+        }
+        if(!fourthRepeated && fourthEdge != thirdEdge){
+            length += edgeLength(cities, fourthEdge, cityTable);
+        }
+        return length;
+    }
+
+
+    /**
+     * Adds up the hashes of the edges affected by a swap, counting each edge once
+     * @param cities - List of cities aka the route
+     * @param firstEdge - Position the first edge starts at
+     * @param secondEdge - Position the second edge starts at
+     * @param thirdEdge - Position the third edge starts at
+     * @param fourthEdge - Position the fourth edge starts at
+     * @param thirdRepeated - Whether the third edge is the same as one of the first two
+     * @param fourthRepeated - Whether the fourth edge is the same as one of the first two
+     * @return - The sum of the edge hashes
+     */
+    private long edgesHash(int[] cities, int firstEdge, int secondEdge, int thirdEdge, int fourthEdge,
+                           boolean thirdRepeated, boolean fourthRepeated){
+        long hash = edgeHash(cities, firstEdge);
+        if(secondEdge != firstEdge){
+            hash += edgeHash(cities, secondEdge);
+        }
+        if(!thirdRepeated){
+            hash += edgeHash(cities, thirdEdge);
+        }
+        if(!fourthRepeated && fourthEdge != thirdEdge){
+            hash += edgeHash(cities, fourthEdge);
+        }
+        return hash;
+    }
+
+
+    /**
+     * Gets the hash of the edge from a position in the route to the next city
+     * @param cities - List of cities aka the route
+     * @param position - The position the edge starts at
+     * @return - The hash of the edge
+     */
+    private long edgeHash(int[] cities, int position){
+        return TourHash.edgeHash(cities[position], cities[(position + 1) % cities.length]);
+    }
+
+
+    /**
+     * Gets the change in the route hash from the last mutation
+     * @return - The amount to add to the parent's hash
+     */
+    long getHashChange(){
+        return hashChange;
+    }
 
-        //Swaps two cities over in the route
-        Random random = new Random();
-        swap(cities, random.nextInt(cities.length), random.nextInt(cities.length));
-        swap(cities, random.nextInt(cities.length), random.nextInt(cities.length));
-        swap(cities, random.nextInt(cities.length), random.nextInt(cities.length));
 
-        //Turn list into chromosome
-        return new Chromosome(cities, false);
+    /**
+     * Gets the length of the edge from a position in the route to the next city
+     * @param cities - List of cities aka the route
+     * @param position - The position the edge starts at
+     * @param cityTable - The table of cities the route indexes into
+     * @return - The length of the edge
+     */
+    private double edgeLength(int[] cities, int position, CityTable cityTable){
+        return cityTable.calcDistance(cities[position], cities[(position + 1) % cities.length]);
     }
 
 
     /**
      * Swap function to swap over the cities
      * @param cities - List of cities aka the route
+     * @param positions - Position of each city in the route, kept up to date
      * @param firstCtyIndex - The index of the first city to swap
      * @param secondCityIndex - The index of the second city to swap
      */
-    private void swap(City[] cities, int firstCtyIndex, int secondCityIndex){
-        City temporary = cities[firstCtyIndex];
+    private void swap(int[] cities, int[] positions, int firstCtyIndex, int secondCityIndex){
+        int temporary = cities[firstCtyIndex];
         cities[firstCtyIndex] = cities[secondCityIndex];
         cities[secondCityIndex] = temporary;
+        positions[cities[firstCtyIndex]] = firstCtyIndex;
+        positions[cities[secondCityIndex]] = secondCityIndex;
     }
 }
@@ -0,0 +1,143 @@
+package Algorithm;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Scratch arrays used by the crossover and mutation methods, kept for each thread and reused between calls
+ * The arrays grow to fit the largest route they have been used with, so once a run has started
+ * no more are created
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @version 1.1 - Added stamps for marking cities in a child without clearing an array first
+ * @see Crossover
+ * @see Mutation
+ */
+class OperatorWorkspace {
+    private static final int MAX_EDGES = 4;     //Most neighbours a city can have across two parents
+    private static final ThreadLocal<OperatorWorkspace> workspaces = ThreadLocal.withInitial(OperatorWorkspace::new);   //Workspace for each thread
+
+    private final Random random = new Random(); //Random used by the operators on this thread
+    private int[] placeholder = new int[0];     //Copy of a parent that is changed while building a child
+    private int[] positions = new int[0];       //Position of each city in a route
+    private boolean[] inChild = new boolean[0]; //Which cities are already in the child being built
+    private int[] edges = new int[0];           //Edge table, the neighbours of each city one after another
+    private int[] edgeCounts = new int[0];      //Number of neighbours left for each city in the edge table
+    private int[] stamps = new int[0];          //Stamp of the child each city was last added to
+    private int stamp;                          //Stamp of the child being built
+
+
+    /**
+     * Private constructor so workspaces are only made through get
+     */
+    private OperatorWorkspace(){}
+
+
+    /**
+     * Gets the workspace for the current thread, making sure its arrays fit a route
+     * @param numOfCities - The number of cities in the route
+     * @return - The workspace
+     */
+    static OperatorWorkspace get(int numOfCities){
+        OperatorWorkspace workspace = workspaces.get();
+        if (workspace.positions.length < numOfCities) {
+            workspace.placeholder = new int[numOfCities];
+            workspace.positions = new int[numOfCities];
+            workspace.inChild = new boolean[numOfCities];
+            workspace.edges = new int[numOfCities * MAX_EDGES];
+            workspace.edgeCounts = new int[numOfCities];
+            workspace.stamps = new int[numOfCities];
+            workspace.stamp = 0;
+        }
+        return workspace;
+    }
+
+
+    /**
+     * Gets the random used by the operators on this thread
+     * @return - The random
+     */
+    Random getRandom(){
+        return random;
+    }
+
+
+    /**
+     * Gets the array used to hold a copy of a parent
+     * @return - The placeholder array
+     */
+    int[] getPlaceholder(){
+        return placeholder;
+    }
+
+
+    /**
+     * Gets the array used to hold the position of each city in a route
+     * @return - The positions array
+     */
+    int[] getPositions(){
+        return positions;
+    }
+
+
+    /**
+     * Gets the array used to mark which cities are in the child, cleared for the first cities
+     * @param numOfCities - The number of cities to clear
+     * @return - The in child array
+     */
+    boolean[] getInChild(int numOfCities){
+        Arrays.fill(inChild, 0, numOfCities, false);
+        return inChild;
+    }
+
+
+    /**
+     * Starts a new child for the stamps array, so every city reads as not in the child
+     * Only clears the array once the stamps run out rather than for every child
+     * @return - The stamp for the new child, a city is in the child when its stamp matches
+     */
+    int nextStamp(){
+        stamp++;
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+
+
+    /**
+     * Gets the stamp of the child each city was last added to
+     * @return - The stamps array
+     */
+    int[] getStamps(){
+        return stamps;
+    }
+
+
+    /**
+     * Gets the edge table, with room for the most neighbours a city can have
+     * @return - The edge table
+     */
+    int[] getEdges(){
+        return edges;
+    }
+
+
+    /**
+     * Gets the number of neighbours left for each city in the edge table
+     * @return - The edge counts
+     */
+    int[] getEdgeCounts(){
+        return edgeCounts;
+    }
+
+
+    /**
+     * Gets the most neighbours a city can have in the edge table
+     * @return - The space for each city in the edge table
+     */
+    static int getMaxEdges(){
+        return MAX_EDGES;
+    }
+}
@@ -2,10 +2,14 @@ package Algorithm;
 
 import Genetics.Chromosome;
 import Genetics.Population;
+import Genetics.PopulationView;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
- * Selection class that will carry out a range of different selection functions depending on user input
+ * Selection class that keeps every selection strategy the genetic algorithm can use
+ * The built in strategies are registered under the names of the selection types, and new strategies can be
+ * registered under their own name without adding to the selection types
  * @author Aaron Luckett (aal16)
  * @version 1.0 - Initial creation and tournament selection
  * @version 1.1 - Added roulette wheel selection
@@ -17,170 +21,288 @@ import java.util.*;
  * @version 1.5 - More improvements to roulette selection
  * @version 1.6 - More improvements to roulette selection
  * @version 1.7 - Final bug checks
+ * @version 1.8 - Selection can pick the index of a parent in a flat population
+ * @version 1.9 - Parents are picked by index instead of copying the population for every parent
+ * @version 1.91 - Tournament selection can pick every parent for a generation in one call
+ * @version 1.92 - Roulette wheel is built once as running totals and each spin is a binary search
+ * @version 1.93 - Ranked selection orders the routes once and works each rank out directly
+ * @version 1.94 - Added stochastic universal sampling
+ * @version 2.0 - Each selection method is a strategy prepared once per generation, kept in a registry by name
+ * @version 2.01 - Roulette wheel is kept private, stochastic universal sampling reads it through accessors
+ * @see SelectionStrategy
  * @see Chromosome
  * @see Population
+ * @see PopulationView
  */
-class Selection {
+public final class Selection {
 
-    private static final int oddsOfUnderdog = 5;        //One in five chance of not actually picking the tournament winner
+    private static final int TOURNAMENT_SIZE = 3;       //Number of routes in each tournament
+    private static final Map<String, Supplier<SelectionStrategy>> strategies = new LinkedHashMap<>();   //Registered strategies by name
+
+    static {
+        register(GeneticAlgorithm.SelectionType.TOURNAMENT.name(), () -> new Tournament(TOURNAMENT_SIZE));
+        register(GeneticAlgorithm.SelectionType.RANKED.name(), Ranked::new);
+        register(GeneticAlgorithm.SelectionType.ROULETTE.name(), RouletteWheel::new);
+        register(GeneticAlgorithm.SelectionType.SUS.name(), StochasticUniversalSampling::new);
+    }
 
     /**
-     * Basic constructor for selection class
+     * Private constructor as the class only has static methods
      */
-    Selection(){}
+    private Selection(){}
 
 
     /**
-     * Carries out tournament selection
-     * @param population - The current population to select from
-     * @param sampleSize - The size of the tournament
-     * @return - The chromosome chosen to be a parent
+     * Registers a selection strategy so it can be created by name
+     * A strategy already registered under the name is replaced
+     * @param name - The name of the strategy
+     * @param factory - Creates a new instance of the strategy, each genetic algorithm gets its own
      */
-    Chromosome tournamentSelection(Population population, int sampleSize) {
-        Chromosome[] chromes = population.getChromosomes();
-        Random random = new Random();
-
-        //Create a list of random participants
-        ArrayList<Chromosome> tournamentParticipants = new ArrayList<>();
-        //According to the size of the sample size, currently set to 2
-        for (int i = 0; i < sampleSize; i++) {
-            //Select as random route to enter into the tournament and add to list
-            Chromosome toCompete = chromes[random.nextInt(chromes.length)];
-            tournamentParticipants.add(toCompete);
+    public static synchronized void register(String name, Supplier<SelectionStrategy> factory){
+        if (name == null || factory == null) {
+            System.out.println("Selection strategy not registered, it needs a name and a way to create it");
+            return;
         }
+        strategies.put(name, factory);
+    }
+
+
+    /**
+     * Creates a new instance of a registered selection strategy
+     * @param name - The name the strategy was registered under
+     * @return - The new strategy, null if there is no strategy with the name
+     */
+    public static synchronized SelectionStrategy create(String name){
+        Supplier<SelectionStrategy> factory = strategies.get(name);
+        return factory == null ? null : factory.get();
+    }
+
+
+    /**
+     * Gets the names of every registered selection strategy, in the order they were registered
+     * @return - The names of the strategies
+     */
+    public static synchronized List<String> getRegisteredNames(){
+        return new ArrayList<>(strategies.keySet());
+    }
+
 
-        //Loop through the participants and pick the one with the best fitness
-        Chromosome best = null;
-        for (Chromosome c : tournamentParticipants) {
-            if (best == null) {
-                best = c;
-            } else if (best.getDistance() > c.getDistance()) {
-                best = c;
+    /**
+     * Tournament selection, the best of a few random routes is picked
+     * The distances are read out of the population once, so each tournament after that only
+     * looks at its own participants in a flat array
+     */
+    static final class Tournament implements SelectionStrategy {
+        private static final int oddsOfUnderdog = 5;    //One in five chance of not actually picking the tournament winner
+
+        private final int sampleSize;                   //The size of each tournament
+        private final int[] participants;               //Scratch array for the tournament participants
+        private int[] distances = new int[0];           //Distances of the generation being picked from
+        private int size;                               //Number of routes in the generation
+
+        /**
+         * Creates tournament selection with a set tournament size
+         * @param sampleSize - The size of each tournament, at least 1
+         */
+        Tournament(int sampleSize){
+            this.sampleSize = Math.max(1, sampleSize);
+            this.participants = new int[this.sampleSize];
+        }
+
+        @Override
+        public String getName(){
+            return GeneticAlgorithm.SelectionType.TOURNAMENT.name();
+        }
+
+        @Override
+        public void prepare(PopulationView population){
+            size = population.size();
+            if (distances.length < size) {
+                distances = new int[size];
+            }
+            for (int i = 0; i < size; i++) {
+                distances[i] = population.getDistance(i);
             }
         }
 
-        //Small chance of not picking the fittest
-        //This is done to increase diversity for the next generation as without it you get premature convergence
-        if (random.nextInt(oddsOfUnderdog) == 0 && tournamentParticipants.size() != 1) {
-            //Removes the fittest
-            tournamentParticipants.remove(best);
-            //Gets a random participant instead
-            return tournamentParticipants.get(random.nextInt(tournamentParticipants.size()));
+        @Override
+        public int select(Random random){
+            //Keeps the best participant and where it was drawn, so an underdog can be told apart from it
+            int best = random.nextInt(size);
+            int bestDraw = 0;
+            participants[0] = best;
+            for (int i = 1; i < sampleSize; i++) {
+                participants[i] = random.nextInt(size);
+                if (distances[participants[i]] < distances[best]) {
+                    best = participants[i];
+                    bestDraw = i;
+                }
+            }
+
+            //Small chance of not picking the fittest
+            if (random.nextInt(oddsOfUnderdog) == 0 && sampleSize != 1) {
+                //Gets a random participant other than the fittest instead
+                int underdog = random.nextInt(sampleSize - 1);
+                if (underdog >= bestDraw) {
+                    underdog++;
+                }
+                best = participants[underdog];
+            }
+            return best;
         }
-        return best;
     }
 
 
     /**
-     * Carries out roulette wheel selection
-     * Selected biased around the fitness of the chromosome
-     * @param population - The population to choose from
-     * @return - the selected chromosome
+     * Roulette wheel selection, routes are picked biased around their fitness
+     * The wheel is the running total of fitness where fitness is the inverse of the distance, it is built
+     * once so each spin after that only costs a binary search
      */
-    Chromosome rouletteWheelSelection(Population population){
-        //Turn population into an array list
-        Chromosome[] chromes = population.getChromosomes();
-
-        //Create array relating to the fitness of the chromosomes
-        double[] fitnessValues = new double[chromes.length];
-        for(int i=0; i<fitnessValues.length; i++){
-            fitnessValues[i] = (chromes[i].getChromeFitness());
-        }
-        //System.out.println("Fitness array: " + Arrays.toString(fitnessValues));
+    static class RouletteWheel implements SelectionStrategy {
+        private double[] wheel = new double[0];         //Running total of fitness up to each route
+        private int wheelSize;                          //Number of routes on the wheel
 
-        //get the total fitness of all of the chromosomes in the population
-        double totalFitness = 0;
-        for (double fitnessValue : fitnessValues) {
-            totalFitness += fitnessValue;
+        @Override
+        public String getName(){
+            return GeneticAlgorithm.SelectionType.ROULETTE.name();
         }
-        //System.out.println("Total fitness: " + totalFitness);
-
-        //Create an array of the ratio of the pie chart each chromosome will have
-        double runningFitness = 0;
-        double[] fitnessRatio = new double[fitnessValues.length];
-        for(int i=0; i<fitnessRatio.length; i++){
-            //Probability is the fitness of the chrome over the total fitness
-            double probability = ((fitnessValues[i] / totalFitness));
-            //The ratio is a running total, will go up from 0 to 1
-            fitnessRatio[i] = (runningFitness + probability);
-            runningFitness += probability;
+
+        @Override
+        public void prepare(PopulationView population){
+            wheelSize = population.size();
+            if (wheel.length < wheelSize) {
+                wheel = new double[wheelSize];
+            }
+            double totalFitness = 0;
+            for (int i = 0; i < wheelSize; i++) {
+                totalFitness += 1.00 / population.getDistance(i);
+                wheel[i] = totalFitness;
+            }
         }
-        //System.out.println("Ratios: " + Arrays.toString(fitnessRatio));
-
-        //Randomly assign a stopping point
-        double selectionPoint = Math.random();
-        Chromosome selectedChrome = null;
-        //System.out.println("selection point: " + selectionPoint);
-
-        //Loop until the running total is is equal to or greater than the selection point
-        //Loop through the population adding the fitness of the chromosome to the running total
-        for(int i=0; i<fitnessRatio.length; i++){
-            if(selectionPoint < fitnessRatio[0]){
-                selectedChrome = chromes[0];
-                break;
-            } else {
-                if(fitnessRatio[i] < selectionPoint){
-                    if(fitnessRatio[i+1] >= selectionPoint) {
-                        selectedChrome = chromes[i+1];
-                        break;
-                    }
+
+        @Override
+        public int select(Random random){
+            //Finds the first route whose running total reaches the selection point
+            double selectionPoint = random.nextDouble() * wheel[wheelSize - 1];
+            int low = 0;
+            int high = wheelSize - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (wheel[middle] >= selectionPoint) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
                 }
             }
+            return low;
         }
 
-        //int[] distanceArray = new int[fitnessRatio.length];
-        //for(int i=0; i<distanceArray.length; i++){
-            //distanceArray[i] = chromes[i].getDistance();
-        //}
-        //System.out.println("Chrome Distance: " + Arrays.toString(distanceArray));
-        //System.out.println("Selected chrome: " + selectedChrome.getDistance());
+        /**
+         * Gets the running total of fitness up to a route on the wheel
+         * @param route - The index of the route
+         * @return - The running total up to and including the route
+         */
+        protected double getRunningTotal(int route){
+            return wheel[route];
+        }
 
-        return selectedChrome;
+        /**
+         * Gets the number of routes on the wheel
+         * @return - The number of routes
+         */
+        protected int getWheelSize(){
+            return wheelSize;
+        }
     }
 
 
     /**
-     * Carries out ranked selection to choose a parent
-     * @param population - the population to choose from
-     * @return - The selected chromosome to be a parent
+     * Stochastic universal sampling, uses the same wheel as roulette selection but spins it once for a batch,
+     * with evenly spaced pointers for every parent, so each route is picked close to the number of times
+     * its fitness deserves
+     * A single parent picked on its own is a normal spin of the wheel
      */
-    Chromosome rankedSelection(Population population){
-        //Turn population into array
-        Chromosome[] chromes = population.getChromosomes();
-        //Turn into priority queue in order to order by best distance
-        PriorityQueue<Chromosome> reverseRank = new PriorityQueue<>(Arrays.asList(chromes));
-
-        //Create an array in the order of best distance first
-        Chromosome[] chrome = new Chromosome[population.size()];
-        for(int i=0; i<population.size(); i++){
-            chrome[i] = reverseRank.poll();
+    static final class StochasticUniversalSampling extends RouletteWheel {
+
+        @Override
+        public String getName(){
+            return GeneticAlgorithm.SelectionType.SUS.name();
         }
 
-        //Flips so worst distance at start of array
-        //Easier to get rank values
-        Collections.reverse(Arrays.asList(chrome));
+        @Override
+        public void select(Random random, int[] parents, int numOfParents){
+            int wheelSize = getWheelSize();
+            double spacing = getRunningTotal(wheelSize - 1) / numOfParents;
+            double pointer = random.nextDouble() * spacing;
 
-        //Get the total rank score of the array
-        int rankedTotal = 0;
-        for(int i=0; i<chrome.length; i++){
-            rankedTotal += ((i) + 1);
+            //One pass along the wheel, moving to the next route whenever the pointer passes the end of this one
+            int route = 0;
+            for (int parent = 0; parent < numOfParents; parent++) {
+                while (route < wheelSize - 1 && getRunningTotal(route) < pointer) {
+                    route++;
+                }
+                parents[parent] = route;
+                pointer += spacing;
+            }
+
+            //Shuffles so the routes paired together are not always neighbours on the wheel
+            for (int i = numOfParents - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int temp = parents[i];
+                parents[i] = parents[j];
+                parents[j] = temp;
+            }
         }
+    }
 
-        //Create random stopping point
-        Random random = new Random();
-        int stoppingPoint = random.nextInt(rankedTotal);
-
-        Chromosome selectedChrome = null;
-        int runningTotal = 0;
-        //Loop through flipped array and keep track of running total
-        for(int j=0; j<chrome.length; j++){
-            runningTotal += (j+1);
-            //If running total reached stopping point, select the chrome that pushed it over the edge
-            if(runningTotal >= stoppingPoint){
-                selectedChrome = chrome[j];
-                break;
+
+    /**
+     * Ranked selection, the worst distance has a rank of 1 and the best a rank of the size, and routes are
+     * picked biased around their rank
+     * The routes are ordered once, so each parent after that is worked out straight from a random number
+     */
+    static final class Ranked implements SelectionStrategy {
+        private long[] rankedOrder = new long[0];       //Distance and index of each route, best first
+
+        @Override
+        public String getName(){
+            return GeneticAlgorithm.SelectionType.RANKED.name();
+        }
+
+        @Override
+        public void prepare(PopulationView population){
+            int size = population.size();
+            if (rankedOrder.length != size) {
+                rankedOrder = new long[size];
+            }
+
+            //Packs the distance and index together so the routes can be ordered without creating objects
+            for (int i = 0; i < size; i++) {
+                rankedOrder[i] = ((long) population.getDistance(i) << 32) | i;
+            }
+            Arrays.sort(rankedOrder);
+        }
+
+        @Override
+        public int select(Random random){
+            //Picks the first rank whose running total of ranks reaches a random stopping point, the running
+            //total up to rank r is r(r+1)/2 so the rank is found by solving for r instead of looping
+            int size = rankedOrder.length;
+            long rankedTotal = ((long) size * (size + 1)) / 2;
+            long stoppingPoint = rankedTotal <= Integer.MAX_VALUE
+                    ? random.nextInt((int) rankedTotal)
+                    : (long) (random.nextDouble() * rankedTotal);
+
+            //Smallest rank whose running total is at least the stopping point, corrected for rounding
+            long rank = (long) Math.ceil((Math.sqrt(1 + (8.0 * stoppingPoint)) - 1) / 2);
+            rank = Math.max(1, rank);
+            while (rank > 1 && ((rank - 1) * rank) / 2 >= stoppingPoint) {
+                rank--;
+            }
+            while ((rank * (rank + 1)) / 2 < stoppingPoint) {
+                rank++;
             }
+            return (int) rankedOrder[size - (int) rank];
         }
-        return selectedChrome;
     }
 }
@@ -0,0 +1,54 @@
+package Algorithm;
+
+import Genetics.PopulationView;
+
+import java.util.Random;
+
+/**
+ * Interface for a way of picking parents from a generation
+ * Any work that only depends on the generation, such as ordering it or adding up its fitness, is done once
+ * in prepare so each parent picked after that is cheap
+ * New strategies can be registered with Selection and used without adding to the selection types
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see Selection
+ * @see GeneticAlgorithm
+ * @see PopulationView
+ */
+public interface SelectionStrategy {
+
+    /**
+     * Gets the name of the strategy, used when printing the details of a run
+     * @return - The name of the strategy
+     */
+    String getName();
+
+
+    /**
+     * Gets the strategy ready to pick parents from a generation, called once for each generation
+     * @param population - The generation parents will be picked from
+     */
+    void prepare(PopulationView population);
+
+
+    /**
+     * Picks one parent from the generation last prepared
+     * @param random - The random to use
+     * @return - The index of the parent in the generation
+     */
+    int select(Random random);
+
+
+    /**
+     * Picks a batch of parents from the generation last prepared
+     * Picks each parent on its own unless the strategy can do better by picking them together
+     * @param random - The random to use
+     * @param parents - Array the index of each parent chosen is put in
+     * @param numOfParents - The number of parents to choose
+     */
+    default void select(Random random, int[] parents, int numOfParents){
+        for (int i = 0; i < numOfParents; i++) {
+            parents[i] = select(random);
+        }
+    }
+}
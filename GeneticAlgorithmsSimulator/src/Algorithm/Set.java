@@ -1,10 +1,10 @@
 package Algorithm;
 
 import Genetics.Population;
+import Graphing.GenerationHistory;
 import Graphing.GraphPlot;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Scanner;
 
 /**
@@ -18,11 +18,16 @@ import java.util.Scanner;
  * @version 1.31 - Correct code and layout
  * @version 1.4 - Fixed errors revolving around testing
  * @version 1.5 - Final bug fixes
+ * @version 1.6 - Multi simulations keep the population in a flat arena
+ * @version 1.7 - Multi simulations average the generation histories without boxing them
+ * @version 1.8 - Added stochastic universal sampling to the selection menu
  * @see Population
  * @see GeneticAlgorithm
  * @see GraphPlot
+ * @see GenerationHistory
  */
 public class Set {
+    private static final int HISTORY_POINTS = 2000;         //Most points kept in each generation history of a multi sim
 
     private Set(){}
 
@@ -71,6 +76,7 @@ public class Set {
 
             if (multipleSimulations) {
                 ga.setMultiSim(true);
+                ga.setArenaMode(true);
                 runMultiSim(ga);
             } else {
                 ga.setMultiSim(false);
@@ -100,6 +106,9 @@ public class Set {
                 case "3":
                     ga.setSelectionType(GeneticAlgorithm.SelectionType.RANKED);
                     break;
+                case "4":
+                    ga.setSelectionType(GeneticAlgorithm.SelectionType.SUS);
+                    break;
                 default:
                     System.out.println("Invalid choice");
                     System.out.println("Default method will be used");
@@ -153,6 +162,7 @@ public class Set {
         System.out.println("1: Tournament Selection");
         System.out.println("2: Roulette Wheel Selection");
         System.out.println("3: Ranked Selection");
+        System.out.println("4: Stochastic Universal Sampling");
     }
 
 
@@ -240,13 +250,13 @@ public class Set {
      */
     private static void runMultiSim(GeneticAlgorithm ga){
         int numberOfRuns = 120;
-        ArrayList<Integer> averageFinalDistance = new ArrayList<>();
-        ArrayList<Integer> generationByGeneration = new ArrayList<>();
-
-        ArrayList<Integer> averageFinalAverageDistance = new ArrayList<>();
-        ArrayList<Integer> generationByGenerationAverageDistances = new ArrayList<>();
+        int[] averageFinalDistance = new int[numberOfRuns];
+        int[] averageFinalAverageDistance = new int[numberOfRuns];
 
-        boolean firstRun = true;
+        //Totals of each generation over every run, turned into averages at the end
+        GenerationHistory generationByGeneration = new GenerationHistory();
+        GenerationHistory generationByGenerationAverageDistances = new GenerationHistory();
+        ga.setHistoryLimit(HISTORY_POINTS);
 
         //Gets time
         double startTime = System.currentTimeMillis();
@@ -254,35 +264,33 @@ public class Set {
         //Run the ga and record the best final result
         for(int i=0; i<numberOfRuns; i++){
             ga.run();
-            averageFinalDistance.add(ga.getBestLastDistance());
-            ArrayList<Integer> bestDistances = ga.getBestDistanceOfEachGen();
-            generationByGeneration = calculateAverages(generationByGeneration, bestDistances, firstRun, (i+1));
-
-            averageFinalAverageDistance.add(ga.getAverageLastGenDistance());
-            ArrayList<Integer> averageDistances = ga.getAverageDistOfEachGen();
-            generationByGenerationAverageDistances = calculateAverages(generationByGenerationAverageDistances, averageDistances, firstRun, (i+1));
+            averageFinalDistance[i] = ga.getBestLastDistance();
+            generationByGeneration.addRun(ga.getBestDistanceOfEachGen());
 
-            firstRun = false;
+            averageFinalAverageDistance[i] = ga.getAverageLastGenDistance();
+            generationByGenerationAverageDistances.addRun(ga.getAverageDistOfEachGen());
 
             ga.resetGA();
         }
+        generationByGeneration.scale(1.0 / numberOfRuns);
+        generationByGenerationAverageDistances.scale(1.0 / numberOfRuns);
 
         //Gets the average time of one algorithm run
         double runTime = workOutRunTime(startTime, numberOfRuns);
 
         //Gets the average distance of the final best distances of each run
         int totalDistance = 0;
-        for (Integer integer : averageFinalDistance) {
-            totalDistance += integer;
+        for (int distance : averageFinalDistance) {
+            totalDistance += distance;
         }
-        int averageDistance = (totalDistance / averageFinalDistance.size());
+        int averageDistance = (totalDistance / averageFinalDistance.length);
 
         //Gets the average distance for the final average distances of each run
         int totalAverageDistance = 0;
-        for (Integer integer : averageFinalAverageDistance) {
-            totalAverageDistance += integer;
+        for (int distance : averageFinalAverageDistance) {
+            totalAverageDistance += distance;
         }
-        int averageAverageDistance = (totalAverageDistance / averageFinalAverageDistance.size());
+        int averageAverageDistance = (totalAverageDistance / averageFinalAverageDistance.length);
 
         //Prints result
         System.out.println();
@@ -292,36 +300,12 @@ public class Set {
         System.out.println("Average runtime: " + runTime + " Seconds");
 
         //Plots graph to show results
-        GraphPlot plot = new GraphPlot("Graph For Distances", generationByGeneration, generationByGeneration.size(), generationByGenerationAverageDistances);
+        GraphPlot plot = new GraphPlot("Graph For Distances", generationByGeneration, generationByGenerationAverageDistances);
         plot.pack();
         plot.setVisible(true);
     }
 
 
-    /**
-     * Calculates the average best distance of each generation to plot at the end of a large simulation
-     * @param generationByGeneration - The current averages of each generation
-     * @param bestDistances - The best distances from the current iteration
-     * @param firstRun - Whether it is the first run
-     * @param iteration - Which iteration to process is on
-     * @return - The updated array list containing the averages
-     */
-    private static ArrayList<Integer> calculateAverages(ArrayList<Integer> generationByGeneration, ArrayList<Integer> bestDistances, boolean firstRun, int iteration){
-        ArrayList<Integer> list = new ArrayList<>();
-        if(firstRun) {
-            list.addAll(bestDistances);
-        } else {
-            for(int i=0; i<bestDistances.size(); i++){
-                int currentAverage = (generationByGeneration.get(i) * (iteration-1));
-                int valueToAdd = bestDistances.get(i);
-                int newAverage = ((currentAverage + valueToAdd)/iteration);
-                list.add(i, newAverage);
-            }
-        }
-        return list;
-    }
-
-
     /**
      * Calculates the run time of a sim
      * @param startTime - The time the sim started
@@ -0,0 +1,163 @@
+package Genetics;
+
+import java.util.List;
+
+/**
+ * Class that works out the length of routes, either one at a time or a whole batch in one pass
+ * When distances are worked out from co-ordinates the co-ordinates of a route are gathered into flat
+ * arrays first, so the edge lengths can be worked out in a simple loop the JIT compiler can vectorise
+ * When the city table has a distance matrix the edge lengths are looked up instead
+ * One evaluator is kept for each thread as the scratch arrays are reused between routes
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @version 1.1 - Flat routes are measured over a range so part of an arena can be measured
+ * @version 1.2 - A single route in a flat array can be measured
+ * @version 1.3 - Looks routes up in the city table's fitness cache before measuring them
+ * @version 1.4 - Measures routes held in tour storage of any encoding
+ * @version 1.41 - Only uses the fitness cache for routes whose hash is already known
+ * @see CityTable
+ * @see Chromosome
+ * @see Population
+ * @see FitnessCache
+ */
+public class BatchEvaluator {
+    private final CityTable cityTable;          //The cities the routes index into
+    private final double[] routeX;              //X co-ordinates of the route being measured, in route order
+    private final double[] routeY;              //Y co-ordinates of the route being measured, in route order
+    private final double[] edgeLengths;         //Length of each edge of the route being measured
+    private final int[] decodedTour;            //Route read out of compact tour storage so it can be measured
+
+
+    /**
+     * Creates the evaluator for a city table
+     * @param cityTable - The table of cities
+     */
+    BatchEvaluator(CityTable cityTable){
+        this.cityTable = cityTable;
+        int numOfCities = cityTable.size();
+        routeX = new double[numOfCities + 1];
+        routeY = new double[numOfCities + 1];
+        edgeLengths = new double[numOfCities];
+        decodedTour = new int[numOfCities];
+    }
+
+
+    /**
+     * Works out the distance of every chromosome in the list that has not been measured yet
+     * @param chromosomes - The chromosomes to measure
+     */
+    public void evaluate(List<Chromosome> chromosomes){
+        for (Chromosome chromosome : chromosomes) {
+            if (!chromosome.isEvaluated()) {
+                TourStorage tour = chromosome.getTourStorage();
+                long tourHash = chromosome.hasTourHash() ? chromosome.getTourHash() : TourHash.UNKNOWN;
+                chromosome.setRouteDistance(measure(tour, 0, tour.size(), tourHash));
+            }
+        }
+    }
+
+
+    /**
+     * Works out the length of a range of routes stored one after another in a single array
+     * @param tours - The routes, each as long as the number of cities
+     * @param firstTour - The first route to measure
+     * @param endTour - The route to stop at, not included
+     * @param lengths - Array the length of each route is put in, at the same index as the route
+     */
+    public void evaluate(TourStorage tours, int firstTour, int endTour, double[] lengths){
+        int numOfCities = cityTable.size();
+        for (int i = firstTour; i < endTour; i++) {
+            int[] cities = tours.toIntArray(i * numOfCities, numOfCities, decodedTour);
+            lengths[i] = tourLength(cities, tours.arrayOffset(i * numOfCities), numOfCities);
+        }
+    }
+
+
+    /**
+     * Gets the length of a route held in tour storage, using the fitness cache if there is one and the hash is known
+     * @param tours - The storage holding the route
+     * @param start - Where the route starts in the storage
+     * @param length - The number of cities in the route
+     * @param tourHash - The hash of the route, or TourHash.UNKNOWN if it has not been worked out
+     * @return - The length of the route
+     */
+    public double measure(TourStorage tours, int start, int length, long tourHash){
+        int[] cities = tours.toIntArray(start, length, decodedTour);
+        return measure(cities, tours.arrayOffset(start), length, tourHash);
+    }
+
+
+    /**
+     * Gets the length of a route stored in part of an array, using the fitness cache if there is one and the hash is known
+     * Hashing a route costs about as much as measuring it, so a route without a hash is just measured
+     * @param tours - The array holding the route
+     * @param start - Where the route starts in the array
+     * @param length - The number of cities in the route
+     * @param tourHash - The hash of the route, or TourHash.UNKNOWN if it has not been worked out
+     * @return - The length of the route
+     */
+    public double measure(int[] tours, int start, int length, long tourHash){
+        FitnessCache fitnessCache = cityTable.getFitnessCache();
+        if (fitnessCache == null || tourHash == TourHash.UNKNOWN) {
+            return tourLength(tours, start, length);
+        }
+        double routeLength = fitnessCache.get(tourHash);
+        if (Double.isNaN(routeLength)) {
+            routeLength = tourLength(tours, start, length);
+            fitnessCache.put(tourHash, routeLength);
+        }
+        return routeLength;
+    }
+
+
+    /**
+     * Works out the length of a whole route, including the edge back to the start
+     * @param tour - The city indexes in order of travel
+     * @return - The length of the route
+     */
+    public double tourLength(int[] tour){
+        return tourLength(tour, 0, tour.length);
+    }
+
+
+    /**
+     * Works out the length of a route stored in part of an array
+     * @param tours - The array holding the route
+     * @param start - Where the route starts in the array
+     * @param length - The number of cities in the route
+     * @return - The length of the route
+     */
+    public double tourLength(int[] tours, int start, int length){
+        DistanceProvider distances = cityTable.getDistanceProvider();
+        if (!(distances instanceof CoordinateDistance)) {
+            //Distances have already been worked out so only look them up
+            double routeDistance = 0;
+            for (int i = start; i < start + length - 1; i++) {
+                routeDistance += distances.getDistance(tours[i], tours[i + 1]);
+            }
+            return routeDistance + distances.getDistance(tours[start + length - 1], tours[start]);
+        }
+
+        //Gather the co-ordinates in route order, repeating the first city at the end to close the loop
+        for (int i = 0; i < length; i++) {
+            int city = tours[start + i];
+            routeX[i] = cityTable.getX(city);
+            routeY[i] = cityTable.getY(city);
+        }
+        routeX[length] = routeX[0];
+        routeY[length] = routeY[0];
+
+        //Straight line loop with no lookups so it can be vectorised
+        for (int i = 0; i < length; i++) {
+            double xDis = routeX[i + 1] - routeX[i];
+            double yDis = routeY[i + 1] - routeY[i];
+            edgeLengths[i] = Math.sqrt((xDis * xDis) + (yDis * yDis));
+        }
+
+        double routeDistance = 0;
+        for (int i = 0; i < length; i++) {
+            routeDistance += edgeLengths[i];
+        }
+        return routeDistance;
+    }
+}
@@ -12,50 +12,169 @@ import java.util.Random;
  * @version 1.1 - Added to string method
  * @version 1.11 - General code tidy
  * @version 1.2 - Final bug checks
+ * @version 1.3 - Stores the route as city indexes into a shared city table
+ * @version 1.4 - Route distance is looked up from the city table's distance provider
+ * @version 1.5 - Route distance can be set by a batch evaluator
+ * @version 1.6 - Route can be copied into part of a flat arena
+ * @version 1.7 - Keeps the exact route length so it can be updated after a mutation instead of measured again
+ * @version 1.8 - Keeps a hash of the route so duplicate routes can be found
+ * @version 1.9 - Route length is looked up in the fitness cache when there is one
+ * @version 2.0 - Route is kept in the smallest type that can hold the city indexes of the instance
+ * @version 2.1 - Children can be kept as the changes made to their parent's route
+ * @version 2.2 - Route can be given with the city indexes the instance was loaded with
+ * @version 2.21 - Constructor that builds its own city table is deprecated and kept for tests only
+ * @version 2.22 - Route is not hashed just to look it up in the fitness cache
  * @see City
+ * @see CityTable
+ * @see TourHash
+ * @see TourStorage
+ * @see PatchedTourStorage
  *
  */
 public class Chromosome implements Comparable<Chromosome> {
-    private int distance = -1; //Will update in the code. The distance to travel the entire route
-    private City[] cities; //Array of the cities in order of the path
+    private double routeLength = -1; //Will update in the code. The exact distance to travel the entire route
+    private CityTable cityTable; //The table of cities the route indexes into
+    private TourStorage tour; //The city indexes in order of the path
+    private long tourHash = TourHash.UNKNOWN; //Hash of the edges in the route, worked out when first needed
 
 
     /**
      * Creates a chromosome which is a set of cities in order of travel
+     * Only for tests, each call builds its own city table so chromosomes made this way never share one
+     * and cannot be put in the same population or arena, use the city table constructor instead
      * @param cities - The list of cities
+     * @param shuffle - Whether to shuffle the route or keep it in the given order
+     * @deprecated - Create a CityTable once and use Chromosome(CityTable, boolean)
      */
+    @Deprecated
     public Chromosome(City[] cities , boolean shuffle){
-        if(!shuffle){
-            //Clones the list of cities passed to it
-            this.cities = cities.clone();
-        } else {
-            this.cities = cities.clone();
-            mixCities();
+        this(new CityTable(cities), shuffle);
+    }
+
+
+    /**
+     * Creates a chromosome that visits every city in the table
+     * @param cityTable - The table of cities for the instance
+     * @param shuffle - Whether to shuffle the route or keep it in table order
+     */
+    public Chromosome(CityTable cityTable, boolean shuffle){
+        this.cityTable = cityTable;
+        int[] cities = new int[cityTable.size()];
+        for(int i=0; i<cities.length; i++){
+            cities[i] = i;
+        }
+        if(shuffle){
+            mixCities(cities);
         }
+        this.tour = TourStorage.of(cityTable.getTourEncoding(), cities);
+    }
+
+
+    /**
+     * Creates a chromosome from a route of city indexes
+     * The array may be used as it is rather than copied, so it must not be changed afterwards
+     * @param cityTable - The table of cities the route indexes into
+     * @param tour - The city indexes in order of travel
+     */
+    public Chromosome(CityTable cityTable, int[] tour){
+        this.cityTable = cityTable;
+        this.tour = TourStorage.of(cityTable.getTourEncoding(), tour);
+    }
+
+
+    /**
+     * Creates a chromosome from a route of city indexes whose length is already known
+     * The array is used as it is rather than copied, so it must not be changed afterwards
+     * @param cityTable - The table of cities the route indexes into
+     * @param tour - The city indexes in order of travel
+     * @param routeLength - The exact length of the route
+     */
+    public Chromosome(CityTable cityTable, int[] tour, double routeLength){
+        this(cityTable, tour);
+        this.routeLength = routeLength;
+    }
+
+
+    /**
+     * Creates a chromosome from a route of city indexes whose length and hash are already known
+     * The array is used as it is rather than copied, so it must not be changed afterwards
+     * @param cityTable - The table of cities the route indexes into
+     * @param tour - The city indexes in order of travel
+     * @param routeLength - The exact length of the route
+     * @param tourHash - The hash of the route, or TourHash.UNKNOWN if it is not known
+     */
+    public Chromosome(CityTable cityTable, int[] tour, double routeLength, long tourHash){
+        this(cityTable, tour, routeLength);
+        this.tourHash = tourHash;
+    }
+
+
+    /**
+     * Creates a chromosome from route storage whose length and hash are already known
+     * @param cityTable - The table of cities the route indexes into
+     * @param tour - The storage holding the route
+     * @param routeLength - The exact length of the route, or -1 if it is not known
+     * @param tourHash - The hash of the route, or TourHash.UNKNOWN if it is not known
+     */
+    private Chromosome(CityTable cityTable, TourStorage tour, double routeLength, long tourHash){
+        this.cityTable = cityTable;
+        this.tour = tour;
+        this.routeLength = routeLength;
+        this.tourHash = tourHash;
+    }
+
+
+    /**
+     * Creates a child that only differs from this chromosome at some positions
+     * The child keeps just the changes over this route, which is shared rather than copied, unless the
+     * changes have built up so far that a full copy takes less room
+     * The route array is not kept, so it can be a scratch array that is reused
+     * @param tour - The full route of the child
+     * @param changedPositions - Positions where the child may differ from this route, in any order
+     * @param numOfChanged - Number of changed positions given
+     * @param routeLength - The exact length of the child's route, or -1 if it is not known
+     * @param tourHash - The hash of the child's route, or TourHash.UNKNOWN if it is not known
+     * @return - The child
+     */
+    public Chromosome createPatchedChild(int[] tour, int[] changedPositions, int numOfChanged, double routeLength, long tourHash){
+        TourStorage childTour = PatchedTourStorage.patch(this.tour, tour, changedPositions, numOfChanged);
+        return new Chromosome(cityTable, childTour, routeLength, tourHash);
+    }
+
+
+    /**
+     * Checks whether the route is kept as changes over another route
+     * @return - Whether the route is patched
+     */
+    public boolean isPatched(){
+        return tour instanceof PatchedTourStorage;
     }
 
 
     /**
      * Essentially shuffles the array around
+     * @param tour - The city indexes to shuffle
      */
-    private void mixCities(){
+    private void mixCities(int[] tour){
         //Swaps over the cities to get different chromosomes
-        for(int i=0; i< cities.length; i++){
-            int index = new Random().nextInt(cities.length);
-            swapGenes(i,index);
+        Random random = new Random();
+        for(int i=0; i< tour.length; i++){
+            int index = random.nextInt(tour.length);
+            swapGenes(tour, i,index);
         }
     }
 
 
     /**
      * Swaps over the elements
+     * @param tour - The city indexes to swap in
      * @param i - First element to swap
      * @param j - Second element to swap
      */
-    private void swapGenes(int i, int j){
-        City temp = cities[i];
-        cities[i] = cities[j];
-        cities[j] = temp;
+    private void swapGenes(int[] tour, int i, int j){
+        int temp = tour[i];
+        tour[i] = tour[j];
+        tour[j] = temp;
     }
 
 
@@ -75,7 +194,103 @@ public class Chromosome implements Comparable<Chromosome> {
      * @return - The cities in the order they are travelled in
      */
     public City[] getArray () {
-        return cities.clone();
+        City[] cities = new City[tour.size()];
+        for(int i=0; i<cities.length; i++){
+            cities[i] = cityTable.getCity(tour.get(i));
+        }
+        return cities;
+    }
+
+
+    /**
+     * Gets a copy of the route as city indexes
+     * @return - The city indexes in the order they are travelled in
+     */
+    public int[] getTour(){
+        int[] cities = new int[tour.size()];
+        tour.read(0, cities, 0, cities.length);
+        return cities;
+    }
+
+
+    /**
+     * Gets the route using the index each city had when the instance was loaded
+     * Matches the instance file even if the city table renumbered the cities
+     * @return - The original city indexes in the order they are travelled in
+     */
+    public int[] getOriginalTour(){
+        int[] cities = getTour();
+        for(int i=0; i<cities.length; i++){
+            cities[i] = cityTable.getOriginalIndex(cities[i]);
+        }
+        return cities;
+    }
+
+
+    /**
+     * Copies the route into an array supplied by the caller
+     * Saves creating a new array every time the route is needed
+     * @param destination - Array to copy the city indexes into, must be at least as long as the route
+     */
+    public void copyTour(int[] destination){
+        tour.read(0, destination, 0, tour.size());
+    }
+
+
+    /**
+     * Copies the route into part of an array supplied by the caller
+     * @param destination - Array to copy the city indexes into
+     * @param start - Where in the array to start copying to
+     */
+    public void copyTour(int[] destination, int start){
+        tour.read(0, destination, start, tour.size());
+    }
+
+
+    /**
+     * Gets the index of the city at a position in the route
+     * @param position - The position in the route
+     * @return - The index of the city in the city table
+     */
+    public int getCityIndex(int position){
+        return tour.get(position);
+    }
+
+
+    /**
+     * Gets the city at a position in the route
+     * @param position - The position in the route
+     * @return - The city at that position
+     */
+    public City getCity(int position){
+        return cityTable.getCity(tour.get(position));
+    }
+
+
+    /**
+     * Gets the number of cities in the route
+     * @return - The number of cities
+     */
+    public int getNumOfCities(){
+        return tour.size();
+    }
+
+
+    /**
+     * Gets the storage holding the route without copying it, only for use by classes that will not change it
+     * @return - The storage holding the city indexes in the order they are travelled in
+     */
+    TourStorage getTourStorage(){
+        return tour;
+    }
+
+
+    /**
+     * Gets the table of cities the route indexes into
+     * @return - The city table
+     */
+    public CityTable getCityTable(){
+        return cityTable;
     }
 
 
@@ -84,19 +299,62 @@ public class Chromosome implements Comparable<Chromosome> {
      * @return - The distance of that route.chromosome
      */
     public int getDistance(){
-        if(distance != -1){
-            return distance;
+        return (int)getRouteLength();
+    }
+
+
+    /**
+     * Gets the exact length of the route, without rounding down to a whole distance
+     * @return - The length of the route
+     */
+    public double getRouteLength(){
+        if(routeLength != -1){
+            return routeLength;
         } else {
-            double routeDistance = 0;
-            //Works out the distance from the first city to the last in the array
-            for(int i=0; (i<cities.length - 1); i++){
-                routeDistance += cities[i].calcDistance(cities[i+1]);
-            }
-            //Adds the final distance between the last city in the array and the first
-            routeDistance += cities[cities.length-1].calcDistance(cities[0]);
-            this.distance = (int)routeDistance;
+            //Works out the distance from the first city to the last and back to the first
+            //Only looked up in the fitness cache if the hash is already known
+            setRouteDistance(cityTable.getBatchEvaluator().measure(tour, 0, tour.size(), tourHash));
+        }
+        return routeLength;
+    }
+
+
+    /**
+     * Gets the hash of the route, which is the same for any route using the same edges
+     * @return - The hash of the route
+     */
+    public long getTourHash(){
+        if(tourHash == TourHash.UNKNOWN){
+            tourHash = TourHash.hash(tour, 0, tour.size());
         }
-        return distance;
+        return tourHash;
+    }
+
+
+    /**
+     * Checks whether the hash of the route has been worked out yet
+     * @return - Whether the hash is known
+     */
+    public boolean hasTourHash(){
+        return tourHash != TourHash.UNKNOWN;
+    }
+
+
+    /**
+     * Checks whether the distance of the route has been worked out yet
+     * @return - Whether the distance is known
+     */
+    boolean isEvaluated(){
+        return routeLength != -1;
+    }
+
+
+    /**
+     * Sets the distance of the route once it has been worked out
+     * @param routeDistance - The full length of the route
+     */
+    void setRouteDistance(double routeDistance){
+        this.routeLength = routeDistance;
     }
 
 
@@ -108,7 +366,8 @@ public class Chromosome implements Comparable<Chromosome> {
     @Override
     public String toString () {
         StringBuilder sb = new StringBuilder("[");
-        for (City item : cities) {
+        for (int i = 0; i < tour.size(); i++) {
+            City item = cityTable.getCity(tour.get(i));
             sb.append("(");
             sb.append(item.getxCoordinate());
             sb.append(",");
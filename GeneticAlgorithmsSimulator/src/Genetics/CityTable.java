@@ -0,0 +1,265 @@
+package Genetics;
+
+/**
+ * Class to represent the table of cities for a loaded instance
+ * The table is created once per instance and shared by every chromosome in the population
+ * Chromosomes store their route as indexes into this table rather than as city objects
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @version 1.1 - Distances come from a distance provider set once per instance
+ * @version 1.2 - Keeps the nearest neighbour lists for the cities
+ * @version 1.3 - Keeps the co-ordinates in flat arrays and evaluates routes in batches
+ * @version 1.4 - Can keep a cache of route lengths
+ * @version 1.5 - Picks the type routes are stored as from the number of cities
+ * @version 1.6 - Can have children kept as changes over their parent's route
+ * @version 1.7 - Cities can be renumbered along a Hilbert curve, keeping the index each city was loaded with
+ * @see City
+ * @see DistanceProvider
+ * @see NeighbourLists
+ * @see BatchEvaluator
+ * @see FitnessCache
+ * @see HilbertCurve
+ * @see Chromosome
+ * @see Population
+ */
+public class CityTable {
+    private static final int NUM_OF_NEIGHBOURS = 10;   //Number of nearest neighbours kept for each city
+
+    private final City[] cities;             //The cities in the instance, never changed once created
+    private final int[] originalIndexes;     //Index each city was loaded with, null if the cities were not renumbered
+    private final double[] xCoordinates;     //X co-ordinate of every city, indexed the same as the cities
+    private final double[] yCoordinates;     //Y co-ordinate of every city, indexed the same as the cities
+    private DistanceProvider distanceProvider; //Gives the distance between two cities in the table
+    private NeighbourLists neighbourLists;   //Nearest neighbours of each city, built the first time they are needed
+    private final TourStorage.Encoding tourEncoding;   //Smallest type that can hold every city index
+    private FitnessCache fitnessCache;       //Lengths of routes that have already been measured, null if not caching
+    private boolean patchedRoutes;           //Whether children are kept as changes over their parent's route
+    private final ThreadLocal<BatchEvaluator> evaluators = ThreadLocal.withInitial(() -> new BatchEvaluator(this));   //Route evaluator for each thread
+
+
+    /**
+     * Creates the table of cities
+     * @param cities - The cities in the instance
+     */
+    public CityTable(City[] cities){
+        this(cities.clone(), null);
+    }
+
+
+    /**
+     * Creates the table with the cities renumbered in the order a Hilbert curve passes them
+     * Cities close together on the map end up close together in the table, so measuring a route
+     * reads co-ordinates and distances that are near each other in memory
+     * @param cities - The cities in the instance, in the order they were loaded
+     * @return - The city table
+     */
+    public static CityTable createSpatiallyOrdered(City[] cities){
+        int[] order = HilbertCurve.order(cities);
+        City[] ordered = new City[cities.length];
+        for(int i=0; i<order.length; i++){
+            ordered[i] = cities[order[i]];
+        }
+        return new CityTable(ordered, order);
+    }
+
+
+    /**
+     * Creates the table of cities
+     * @param cities - The cities in table order, not copied
+     * @param originalIndexes - Index each city was loaded with, null if they are in the order they were loaded
+     */
+    private CityTable(City[] cities, int[] originalIndexes){
+        this.cities = cities;
+        this.originalIndexes = originalIndexes;
+        //Keeps the co-ordinates next to each other so routes can be measured without visiting every city object
+        this.xCoordinates = new double[cities.length];
+        this.yCoordinates = new double[cities.length];
+        for(int i=0; i<cities.length; i++){
+            xCoordinates[i] = cities[i].getxCoordinate();
+            yCoordinates[i] = cities[i].getyCoordinate();
+        }
+        //Routes use the smallest type that can hold every city index
+        this.tourEncoding = TourStorage.Encoding.forCities(cities.length);
+        //Works distances out from the co-ordinates until a better provider is set
+        this.distanceProvider = new CoordinateDistance(this);
+    }
+
+
+    /**
+     * Gets the number of cities in the table
+     * @return - The number of cities
+     */
+    public int size(){
+        return cities.length;
+    }
+
+
+    /**
+     * Gets the city stored at an index
+     * @param index - The index of the city
+     * @return - The city at that index
+     */
+    public City getCity(int index){
+        return cities[index];
+    }
+
+
+    /**
+     * Gets the index a city had in the instance when it was loaded
+     * Used when routes are written out so they match the instance file
+     * @param index - The index of the city in the table
+     * @return - The index of the city in the instance
+     */
+    public int getOriginalIndex(int index){
+        return originalIndexes == null ? index : originalIndexes[index];
+    }
+
+
+    /**
+     * Checks whether the cities are in a different order to the one they were loaded in
+     * @return - Whether the cities have been renumbered
+     */
+    public boolean isRenumbered(){
+        return originalIndexes != null;
+    }
+
+
+    /**
+     * Gets a copy of all of the cities in the table
+     * @return - The cities in the table
+     */
+    public City[] getCities(){
+        return cities.clone();
+    }
+
+
+    /**
+     * Gets the x co-ordinate of a city
+     * @param index - The index of the city
+     * @return - The x co-ordinate
+     */
+    public double getX(int index){
+        return xCoordinates[index];
+    }
+
+
+    /**
+     * Gets the y co-ordinate of a city
+     * @param index - The index of the city
+     * @return - The y co-ordinate
+     */
+    public double getY(int index){
+        return yCoordinates[index];
+    }
+
+
+    /**
+     * Works out the distance between two cities straight from their co-ordinates
+     * @param from - Index of the first city
+     * @param to - Index of the second city
+     * @return - The distance between the two cities
+     */
+    public double calcCoordinateDistance(int from, int to){
+        double xDis = xCoordinates[from] - xCoordinates[to];
+        double yDis = yCoordinates[from] - yCoordinates[to];
+        return Math.sqrt((xDis * xDis) + (yDis * yDis));
+    }
+
+
+    /**
+     * Calculates the distance between two cities in the table
+     * @param from - Index of the first city
+     * @param to - Index of the second city
+     * @return - The distance between the two cities
+     */
+    public double calcDistance(int from, int to){
+        return distanceProvider.getDistance(from, to);
+    }
+
+
+    /**
+     * Gets the distance provider used by the table
+     * @return - The distance provider
+     */
+    public DistanceProvider getDistanceProvider(){
+        return distanceProvider;
+    }
+
+
+    /**
+     * Sets the distance provider used by the table
+     * Should be set once when the instance is loaded, before any routes are measured
+     * @param distanceProvider - The distance provider to use
+     */
+    public void setDistanceProvider(DistanceProvider distanceProvider){
+        this.distanceProvider = distanceProvider;
+    }
+
+
+    /**
+     * Gets the nearest neighbours of each city
+     * The lists are built the first time this is called
+     * @return - The neighbour lists
+     */
+    public synchronized NeighbourLists getNeighbourLists(){
+        if(neighbourLists == null){
+            neighbourLists = new NeighbourLists(this, NUM_OF_NEIGHBOURS);
+        }
+        return neighbourLists;
+    }
+
+
+    /**
+     * Gets the type routes through the table are stored as
+     * @return - The tour encoding
+     */
+    public TourStorage.Encoding getTourEncoding(){
+        return tourEncoding;
+    }
+
+
+    /**
+     * Gets the cache of route lengths
+     * @return - The fitness cache, null if lengths are not being cached
+     */
+    public FitnessCache getFitnessCache(){
+        return fitnessCache;
+    }
+
+
+    /**
+     * Sets the cache of route lengths used when routes are measured
+     * @param fitnessCache - The fitness cache, null to stop caching
+     */
+    public void setFitnessCache(FitnessCache fitnessCache){
+        this.fitnessCache = fitnessCache;
+    }
+
+
+    /**
+     * Checks whether children are kept as changes over their parent's route rather than full copies
+     * @return - Whether routes are patched
+     */
+    public boolean usesPatchedRoutes(){
+        return patchedRoutes;
+    }
+
+
+    /**
+     * Sets whether children are kept as changes over their parent's route rather than full copies
+     * Saves a lot of memory on large instances where children are close to their parents
+     * @param patchedRoutes - Whether routes are patched
+     */
+    public void setPatchedRoutes(boolean patchedRoutes){
+        this.patchedRoutes = patchedRoutes;
+    }
+
+
+    /**
+     * Gets the route evaluator for the current thread
+     * @return - The batch evaluator
+     */
+    public BatchEvaluator getBatchEvaluator(){
+        return evaluators.get();
+    }
+}
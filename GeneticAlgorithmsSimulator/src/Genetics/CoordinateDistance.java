@@ -0,0 +1,35 @@
+package Genetics;
+
+/**
+ * Distance provider that works the distance out from the city co-ordinates every time it is asked
+ * Uses no extra memory so it is used when a distance matrix will not fit
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @version 1.1 - Reads the co-ordinates from the flat arrays in the city table
+ * @see DistanceProvider
+ * @see City
+ */
+public class CoordinateDistance implements DistanceProvider {
+    private final CityTable cityTable;          //The cities to work out the distances between
+
+
+    /**
+     * Creates the distance provider
+     * @param cityTable - The table of cities
+     */
+    public CoordinateDistance(CityTable cityTable){
+        this.cityTable = cityTable;
+    }
+
+
+    /**
+     * Calculates the distance between two cities from their co-ordinates
+     * @param from - Index of the first city in the city table
+     * @param to - Index of the second city in the city table
+     * @return - The distance between the two cities
+     */
+    @Override
+    public double getDistance(int from, int to){
+        return cityTable.calcCoordinateDistance(from, to);
+    }
+}
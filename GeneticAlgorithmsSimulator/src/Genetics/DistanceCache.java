@@ -0,0 +1,296 @@
+package Genetics;
+
+/**
+ * Distance provider that keeps recently used distances in a cache of a set size
+ * Sits between working every distance out from the co-ordinates and storing a full matrix, for instances
+ * too big for a matrix where routes keep using the same edges
+ * Distances are cached in blocks, each block holding the distances from one city to a run of cities with
+ * neighbouring indexes, so once cities are numbered along a space filling curve the edges of a good route
+ * mostly fall in blocks that are already cached
+ * The cache is split into stripes with their own lock so threads measuring routes at the same time rarely
+ * wait for each other, and each stripe throws away blocks with the CLOCK method when it is full
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see DistanceProvider
+ * @see DistanceMatrix
+ * @see CoordinateDistance
+ */
+public class DistanceCache implements DistanceProvider {
+    private static final int BLOCK_SIZE = 64;           //Number of distances in each block
+    private static final int NUM_OF_STRIPES = 16;       //Number of separately locked parts of the cache, a power of two
+    private static final int BYTES_PER_BLOCK = (BLOCK_SIZE * Float.BYTES) + Long.BYTES + 1 + (2 * Integer.BYTES);   //Room taken by one block and its bookkeeping
+
+    private final CityTable cityTable;          //The cities to work out the distances between
+    private final int blocksPerRow;             //Number of blocks needed to cover every city from one city
+    private final Stripe[] stripes;             //The separately locked parts of the cache
+
+
+    /**
+     * Creates an empty cache that fits in a memory budget
+     * @param cityTable - The table of cities
+     * @param memoryBudget - The most bytes the cache should use
+     */
+    public DistanceCache(CityTable cityTable, long memoryBudget){
+        this.cityTable = cityTable;
+        int numOfCities = cityTable.size();
+        this.blocksPerRow = (numOfCities + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        //Never holds more blocks than the instance has, and always at least one block in each stripe
+        long blocksNeeded = (long) numOfCities * blocksPerRow;
+        long blocks = Math.min(memoryBudget / BYTES_PER_BLOCK, blocksNeeded);
+        int blocksPerStripe = (int) Math.max(1, Math.min(Integer.MAX_VALUE / (2L * BLOCK_SIZE), blocks / NUM_OF_STRIPES));
+        stripes = new Stripe[NUM_OF_STRIPES];
+        for (int i = 0; i < NUM_OF_STRIPES; i++) {
+            stripes[i] = new Stripe(blocksPerStripe);
+        }
+    }
+
+
+    /**
+     * Gets the distance between two cities, working out the block it is in if it is not cached
+     * @param from - Index of the first city in the city table
+     * @param to - Index of the second city in the city table
+     * @return - The distance between the two cities
+     */
+    @Override
+    public double getDistance(int from, int to){
+        if (from == to) {
+            return 0;
+        }
+        //Distances are the same both ways so the larger index always picks the row
+        int row = Math.max(from, to);
+        int column = Math.min(from, to);
+        long blockKey = ((long) row * blocksPerRow) + (column / BLOCK_SIZE);
+        long hash = mix(blockKey);
+        Stripe stripe = stripes[(int) (hash >>> 60) & (NUM_OF_STRIPES - 1)];
+        synchronized (stripe) {
+            int slot = stripe.find(blockKey, hash);
+            if (slot >= 0) {
+                stripe.hits++;
+                stripe.referenced[slot] = true;
+            } else {
+                stripe.misses++;
+                slot = stripe.insert(blockKey, hash);
+                fillBlock(stripe, slot, row, column - (column % BLOCK_SIZE));
+            }
+            return stripe.distances[(slot * BLOCK_SIZE) + (column % BLOCK_SIZE)];
+        }
+    }
+
+
+    /**
+     * Works out every distance in a block from the co-ordinates
+     * @param stripe - The stripe the block is in
+     * @param slot - The slot the block is kept in
+     * @param row - The city the distances are from
+     * @param firstColumn - The first city the distances are to
+     */
+    private void fillBlock(Stripe stripe, int slot, int row, int firstColumn){
+        int lastColumn = Math.min(firstColumn + BLOCK_SIZE, cityTable.size());
+        int offset = slot * BLOCK_SIZE;
+        for (int column = firstColumn; column < lastColumn; column++) {
+            stripe.distances[offset + column - firstColumn] = (float) cityTable.calcCoordinateDistance(row, column);
+        }
+    }
+
+
+    /**
+     * Spreads the bits of a block key so neighbouring blocks land in different stripes and slots
+     * @param key - The block key
+     * @return - The mixed key
+     */
+    private static long mix(long key){
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
+    }
+
+
+    /**
+     * Gets the number of lookups that found their distance in the cache
+     * @return - The number of hits
+     */
+    public long getHits(){
+        long hits = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                hits += stripe.hits;
+            }
+        }
+        return hits;
+    }
+
+
+    /**
+     * Gets the number of lookups that had to work their block out
+     * @return - The number of misses
+     */
+    public long getMisses(){
+        long misses = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                misses += stripe.misses;
+            }
+        }
+        return misses;
+    }
+
+
+    /**
+     * Gets the fraction of lookups that found their distance in the cache
+     * @return - The hit rate, 0 if there have been no lookups
+     */
+    public double getHitRate(){
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+
+    /**
+     * Gets the number of blocks in the cache
+     * @return - The number of blocks
+     */
+    public int size(){
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.used;
+            }
+        }
+        return size;
+    }
+
+
+    /**
+     * Gets the most blocks the cache holds
+     * @return - The capacity in blocks
+     */
+    public int getCapacity(){
+        return stripes.length * stripes[0].blockKeys.length;
+    }
+
+
+    /**
+     * Sets the hit and miss counters back to zero, keeping the cached distances
+     */
+    public void resetCounters(){
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.hits = 0;
+                stripe.misses = 0;
+            }
+        }
+    }
+
+
+    /**
+     * Ways of printing out the data about the cache
+     * @return - String containing the cache counters
+     */
+    @Override
+    public String toString(){
+        return "Distance cache hits: " + getHits() + " misses: " + getMisses() + " hit rate: " + String.format("%.1f", getHitRate() * 100) + "%";
+    }
+
+
+    /**
+     * One separately locked part of the cache
+     * Blocks are found through an open addressing table of slot numbers, and the CLOCK hand sweeps the
+     * slots giving each block that has been used since the last sweep another chance before it is replaced
+     */
+    private static final class Stripe {
+        private final long[] blockKeys;         //Key of the block in each slot
+        private final float[] distances;        //Distances of each block, one block after another
+        private final boolean[] referenced;     //Whether each block has been used since the hand last passed it
+        private final int[] slotTable;          //Open addressing table of slot numbers plus one, 0 where empty
+        private final int mask;                 //Size of the slot table minus one
+        private int used;                       //Number of slots holding a block
+        private int hand;                       //Next slot the CLOCK hand looks at
+        private long hits;                      //Lookups that found their block
+        private long misses;                    //Lookups that had to work their block out
+
+        Stripe(int numOfSlots){
+            blockKeys = new long[numOfSlots];
+            distances = new float[numOfSlots * BLOCK_SIZE];
+            referenced = new boolean[numOfSlots];
+            //At most half full so searches stay short
+            int tableSize = Integer.highestOneBit(Math.max(2, numOfSlots * 2 - 1)) << 1;
+            slotTable = new int[tableSize];
+            mask = tableSize - 1;
+        }
+
+        /**
+         * Finds the slot a block is kept in
+         * @param blockKey - The key of the block
+         * @param hash - The mixed key
+         * @return - The slot, or -1 if the block is not cached
+         */
+        int find(long blockKey, long hash){
+            for (int i = (int) hash & mask; slotTable[i] != 0; i = (i + 1) & mask) {
+                int slot = slotTable[i] - 1;
+                if (blockKeys[slot] == blockKey) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Picks a slot for a new block, replacing an old block if the stripe is full
+         * @param blockKey - The key of the new block
+         * @param hash - The mixed key
+         * @return - The slot the block should be written to
+         */
+        int insert(long blockKey, long hash){
+            int slot;
+            if (used < blockKeys.length) {
+                slot = used;
+                used++;
+            } else {
+                //Clears the mark of each used block until one that has not been used is found
+                while (referenced[hand]) {
+                    referenced[hand] = false;
+                    hand = (hand + 1) % blockKeys.length;
+                }
+                slot = hand;
+                hand = (hand + 1) % blockKeys.length;
+                remove(blockKeys[slot]);
+            }
+            blockKeys[slot] = blockKey;
+            referenced[slot] = false;
+            int i = (int) hash & mask;
+            while (slotTable[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            slotTable[i] = slot + 1;
+            return slot;
+        }
+
+        /**
+         * Takes a block out of the slot table, moving later entries back so none are cut off from their start
+         * @param blockKey - The key of the block to remove
+         */
+        private void remove(long blockKey){
+            int i = (int) mix(blockKey) & mask;
+            while (blockKeys[slotTable[i] - 1] != blockKey) {
+                i = (i + 1) & mask;
+            }
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (slotTable[j] == 0) {
+                    break;
+                }
+                int home = (int) mix(blockKeys[slotTable[j] - 1]) & mask;
+                //Entries whose start is between the gap and where they are can stay
+                boolean staysPut = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!staysPut) {
+                    slotTable[i] = slotTable[j];
+                    i = j;
+                }
+            }
+            slotTable[i] = 0;
+        }
+    }
+}
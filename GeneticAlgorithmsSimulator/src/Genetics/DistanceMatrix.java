@@ -0,0 +1,158 @@
+package Genetics;
+
+/**
+ * Distance provider that works out the distance between every pair of cities once and stores it
+ * Distances are the same in both directions so only the lower half of the matrix is stored,
+ * in a flat array of floats or ints depending on the precision wanted
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see DistanceProvider
+ * @see CityTable
+ */
+public class DistanceMatrix implements DistanceProvider {
+    private static final long MAX_ENTRIES = Integer.MAX_VALUE - 8;    //Largest array the JVM will reliably create
+
+    private final Precision precision;          //Whether the distances are stored as floats or ints
+    private float[] floatDistances;             //Lower half of the matrix when stored as floats
+    private int[] intDistances;                 //Lower half of the matrix when stored as ints
+
+
+    /**
+     * The precisions the matrix can be stored in
+     */
+    public enum Precision{
+        FLOAT(Float.BYTES),
+        INT(Integer.BYTES);
+
+        private final int bytes;                //Bytes used to store one distance
+
+        Precision(int bytes){
+            this.bytes = bytes;
+        }
+
+
+        /**
+         * Gets the number of bytes used to store one distance
+         * @return - The number of bytes
+         */
+        public int getBytes(){
+            return bytes;
+        }
+    }
+
+
+    /**
+     * Creates the matrix and works out every distance
+     * @param cityTable - The table of cities
+     * @param precision - The precision to store the distances in
+     */
+    public DistanceMatrix(CityTable cityTable, Precision precision){
+        this.precision = precision;
+        int numOfCities = cityTable.size();
+        int entries = (int)numOfEntries(numOfCities);
+        if(precision == Precision.FLOAT){
+            floatDistances = new float[entries];
+        } else {
+            intDistances = new int[entries];
+        }
+
+        //Works along each row of the lower half, the row city is always the larger index
+        int index = 0;
+        for(int i=1; i<numOfCities; i++){
+            for(int j=0; j<i; j++){
+                double distance = cityTable.calcCoordinateDistance(i, j);
+                if(precision == Precision.FLOAT){
+                    floatDistances[index] = (float)distance;
+                } else {
+                    intDistances[index] = (int)Math.round(distance);
+                }
+                index++;
+            }
+        }
+    }
+
+
+    /**
+     * Creates a distance matrix if it fits in the memory budget
+     * If it does not fit the distances will be worked out from the co-ordinates instead
+     * @param cityTable - The table of cities
+     * @param precision - The precision to store the distances in
+     * @param memoryBudget - The most bytes the matrix is allowed to use
+     * @return - The distance provider to use for the city table
+     */
+    public static DistanceProvider create(CityTable cityTable, Precision precision, long memoryBudget){
+        if(!fits(cityTable.size(), precision, memoryBudget)){
+            System.out.println("Distance matrix will not fit in memory, distances will be calculated when needed");
+            return new CoordinateDistance(cityTable);
+        }
+        return new DistanceMatrix(cityTable, precision);
+    }
+
+
+    /**
+     * Checks whether a matrix for a number of cities fits in a memory budget
+     * @param numOfCities - The number of cities
+     * @param precision - The precision the distances would be stored in
+     * @param memoryBudget - The most bytes the matrix is allowed to use
+     * @return - Whether the matrix fits
+     */
+    public static boolean fits(int numOfCities, Precision precision, long memoryBudget){
+        long entries = numOfEntries(numOfCities);
+        return entries <= MAX_ENTRIES && entries * precision.getBytes() <= memoryBudget;
+    }
+
+
+    /**
+     * Works out how many distances are stored for a number of cities
+     * @param numOfCities - The number of cities
+     * @return - The number of entries in the lower half of the matrix
+     */
+    static long numOfEntries(int numOfCities){
+        return ((long)numOfCities * (numOfCities - 1)) / 2;
+    }
+
+
+    /**
+     * Works out where the distance between two cities is stored
+     * @param from - Index of the first city
+     * @param to - Index of the second city
+     * @return - Position of the distance in the flat array
+     */
+    static long entryIndex(int from, int to){
+        //The larger index picks the row, the smaller index the column
+        if(from < to){
+            int temp = from;
+            from = to;
+            to = temp;
+        }
+        return ((long)from * (from - 1)) / 2 + to;
+    }
+
+
+    /**
+     * Gets the distance between two cities from the matrix
+     * @param from - Index of the first city in the city table
+     * @param to - Index of the second city in the city table
+     * @return - The stored distance between the two cities
+     */
+    @Override
+    public double getDistance(int from, int to){
+        if(from == to){
+            return 0;
+        }
+        int index = (int)entryIndex(from, to);
+        if(precision == Precision.FLOAT){
+            return floatDistances[index];
+        }
+        return intDistances[index];
+    }
+
+
+    /**
+     * Gets the precision the distances are stored in
+     * @return - The precision
+     */
+    public Precision getPrecision(){
+        return precision;
+    }
+}
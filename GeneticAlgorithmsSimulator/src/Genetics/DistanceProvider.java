@@ -0,0 +1,21 @@
+package Genetics;
+
+/**
+ * Interface for anything that can give the distance between two cities in a city table
+ * Chromosomes use this to work out the length of their routes
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see CityTable
+ * @see DistanceMatrix
+ * @see CoordinateDistance
+ */
+public interface DistanceProvider {
+
+    /**
+     * Gets the distance between two cities
+     * @param from - Index of the first city in the city table
+     * @param to - Index of the second city in the city table
+     * @return - The distance between the two cities
+     */
+    double getDistance(int from, int to);
+}
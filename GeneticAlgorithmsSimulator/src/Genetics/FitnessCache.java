@@ -0,0 +1,130 @@
+package Genetics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of route lengths keyed by the hash of the route
+ * Late in a run crossover between near identical parents keeps making routes that have already been
+ * measured, so their length can be looked up instead of measured again
+ * Holds a set number of lengths and throws away the one used least recently when full
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see TourHash
+ * @see CityTable
+ * @see BatchEvaluator
+ */
+public class FitnessCache {
+    private final int capacity;                     //The most lengths the cache holds
+    private final LinkedHashMap<Long, Double> lengths;  //Route lengths by route hash, in order of last use
+    private long hits;                              //Number of lookups that found a length
+    private long misses;                            //Number of lookups that did not find a length
+
+
+    /**
+     * Creates an empty cache
+     * @param capacity - The most lengths the cache holds
+     */
+    public FitnessCache(int capacity){
+        //Always holds at least one length
+        this.capacity = Math.max(1, capacity);
+        //Access order so the least recently used length is the eldest
+        this.lengths = new LinkedHashMap<Long, Double>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest){
+                return size() > FitnessCache.this.capacity;
+            }
+        };
+    }
+
+
+    /**
+     * Looks up the length of a route
+     * @param tourHash - The hash of the route
+     * @return - The length of the route, or NaN if it is not in the cache
+     */
+    public synchronized double get(long tourHash){
+        Double length = lengths.get(tourHash);
+        if (length == null) {
+            misses++;
+            return Double.NaN;
+        }
+        hits++;
+        return length;
+    }
+
+
+    /**
+     * Stores the length of a route
+     * @param tourHash - The hash of the route
+     * @param routeLength - The length of the route
+     */
+    public synchronized void put(long tourHash, double routeLength){
+        lengths.put(tourHash, routeLength);
+    }
+
+
+    /**
+     * Gets the number of lookups that found a length
+     * @return - The number of hits
+     */
+    public synchronized long getHits(){
+        return hits;
+    }
+
+
+    /**
+     * Gets the number of lookups that did not find a length
+     * @return - The number of misses
+     */
+    public synchronized long getMisses(){
+        return misses;
+    }
+
+
+    /**
+     * Gets the fraction of lookups that found a length
+     * @return - The hit rate, 0 if there have been no lookups
+     */
+    public synchronized double getHitRate(){
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+
+    /**
+     * Gets the number of lengths in the cache
+     * @return - The number of lengths
+     */
+    public synchronized int size(){
+        return lengths.size();
+    }
+
+
+    /**
+     * Gets the most lengths the cache holds
+     * @return - The capacity
+     */
+    public int getCapacity(){
+        return capacity;
+    }
+
+
+    /**
+     * Sets the hit and miss counters back to zero, keeping the lengths
+     */
+    public synchronized void resetCounters(){
+        hits = 0;
+        misses = 0;
+    }
+
+
+    /**
+     * Ways of printing out the data about the cache
+     * @return - String containing the cache counters
+     */
+    @Override
+    public synchronized String toString(){
+        return "Fitness cache hits: " + hits + " misses: " + misses + " hit rate: " + String.format("%.1f", getHitRate() * 100) + "%";
+    }
+}
@@ -0,0 +1,91 @@
+package Genetics;
+
+import java.util.Arrays;
+
+/**
+ * Class to put cities in the order they are passed by a Hilbert curve drawn over the instance
+ * The curve visits every cell of a grid without jumping, so cities next to each other in the order are
+ * also close together on the map
+ * Renumbering the cities in this order means routes that move between nearby cities read nearby
+ * co-ordinates and distance rows rather than ones spread across memory
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see CityTable
+ * @see Population
+ */
+final class HilbertCurve {
+    private static final int ORDER = 15;        //Bits used for each co-ordinate, the curve index fits in 30 bits
+
+    /**
+     * Private constructor as the class only has static methods
+     */
+    private HilbertCurve(){}
+
+
+    /**
+     * Gets the order the cities are passed along the curve
+     * @param cities - The cities to order
+     * @return - The index of the city in the original array for each place along the curve
+     */
+    static int[] order(City[] cities){
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (City city : cities) {
+            minX = Math.min(minX, city.getxCoordinate());
+            minY = Math.min(minY, city.getyCoordinate());
+            maxX = Math.max(maxX, city.getxCoordinate());
+            maxY = Math.max(maxY, city.getyCoordinate());
+        }
+
+        //Scales both axes the same amount so the grid is square over the instance
+        int cells = 1 << ORDER;
+        double span = Math.max(maxX - minX, maxY - minY);
+        double scale = span > 0 ? (cells - 1) / span : 0;
+
+        //Puts the curve index in the top half and the city in the bottom half so one sort orders both
+        long[] keys = new long[cities.length];
+        for (int i = 0; i < cities.length; i++) {
+            int x = (int) ((cities[i].getxCoordinate() - minX) * scale);
+            int y = (int) ((cities[i].getyCoordinate() - minY) * scale);
+            keys[i] = (index(x, y) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] order = new int[cities.length];
+        for (int i = 0; i < cities.length; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+
+    /**
+     * Gets how far along the curve a cell of the grid is
+     * @param x - The column of the cell
+     * @param y - The row of the cell
+     * @return - The distance along the curve
+     */
+    static long index(int x, int y){
+        int cells = 1 << ORDER;
+        long distance = 0;
+        for (int half = cells / 2; half > 0; half /= 2) {
+            int inRight = (x & half) > 0 ? 1 : 0;
+            int inTop = (y & half) > 0 ? 1 : 0;
+            distance += (long) half * half * ((3 * inRight) ^ inTop);
+
+            //Rotates the quarter so the curve inside it joins up with the quarters either side
+            if (inTop == 0) {
+                if (inRight == 1) {
+                    x = cells - 1 - x;
+                    y = cells - 1 - y;
+                }
+                int temp = x;
+                x = y;
+                y = temp;
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,259 @@
+package Genetics;
+
+/**
+ * A 2-d tree over the co-ordinates of the cities in a city table
+ * The tree is stored in a single array of city indexes, each range of the array is split at its
+ * middle element alternating between the x and y co-ordinates
+ * Building it takes O(n log n) and finding the nearest cities to a city takes around O(log n)
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see NeighbourLists
+ * @see CityTable
+ */
+class KdTree {
+    private final int[] xCoordinates;           //X co-ordinate of each city, indexed by city
+    private final int[] yCoordinates;           //Y co-ordinate of each city, indexed by city
+    private final int[] tree;                   //City indexes laid out as the tree
+
+    //Search state, reused between searches
+    private int[] bestCities;                   //Max heap of the closest cities found so far
+    private long[] bestDistances;               //Squared distances of the cities in the heap
+    private int bestSize;                       //Number of cities in the heap
+    private int maxSize;                        //Number of cities wanted
+
+
+    /**
+     * Builds the tree for a city table
+     * @param cityTable - The table of cities
+     */
+    KdTree(CityTable cityTable){
+        int numOfCities = cityTable.size();
+        xCoordinates = new int[numOfCities];
+        yCoordinates = new int[numOfCities];
+        tree = new int[numOfCities];
+        for(int i=0; i<numOfCities; i++){
+            City city = cityTable.getCity(i);
+            xCoordinates[i] = city.getxCoordinate();
+            yCoordinates[i] = city.getyCoordinate();
+            tree[i] = i;
+        }
+        build(0, numOfCities, true);
+    }
+
+
+    /**
+     * Splits a range of the tree at its middle element and builds both halves
+     * @param low - Start of the range
+     * @param high - End of the range, not included
+     * @param splitOnX - Whether this level splits on the x co-ordinate
+     */
+    private void build(int low, int high, boolean splitOnX){
+        if(high - low <= 1){
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        select(low, high - 1, middle, splitOnX);
+        build(low, middle, !splitOnX);
+        build(middle + 1, high, !splitOnX);
+    }
+
+
+    /**
+     * Partially sorts a range so the element at nth is the one that would be there if the range was sorted,
+     * with nothing larger before it and nothing smaller after it
+     * @param left - Start of the range
+     * @param right - End of the range, included
+     * @param nth - The position to put the correct element in
+     * @param onX - Whether to compare the x or y co-ordinate
+     */
+    private void select(int left, int right, int nth, boolean onX){
+        while(right > left){
+            int pivot = coordinate(tree[(left + right) >>> 1], onX);
+            int i = left;
+            int j = right;
+            while(i <= j){
+                while(coordinate(tree[i], onX) < pivot){
+                    i++;
+                }
+                while(coordinate(tree[j], onX) > pivot){
+                    j--;
+                }
+                if(i <= j){
+                    int temp = tree[i];
+                    tree[i] = tree[j];
+                    tree[j] = temp;
+                    i++;
+                    j--;
+                }
+            }
+            //Carry on in whichever side has the position wanted
+            if(nth <= j){
+                right = j;
+            } else if(nth >= i){
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * Gets one of the co-ordinates of a city
+     * @param city - The city index
+     * @param x - Whether to get the x co-ordinate
+     * @return - The co-ordinate
+     */
+    private int coordinate(int city, boolean x){
+        return x ? xCoordinates[city] : yCoordinates[city];
+    }
+
+
+    /**
+     * Finds the nearest cities to a city, not including the city itself
+     * @param city - The city to search around
+     * @param result - Array to put the nearest cities in, closest first, its length is the number of cities wanted
+     */
+    void nearest(int city, int[] result){
+        maxSize = result.length;
+        if(bestCities == null || bestCities.length < maxSize){
+            bestCities = new int[maxSize];
+            bestDistances = new long[maxSize];
+        }
+        bestSize = 0;
+        search(0, tree.length, true, city);
+
+        //Take the furthest off the heap each time to fill the result from the back
+        for(int i=bestSize - 1; i>=0; i--){
+            result[i] = bestCities[0];
+            bestSize--;
+            bestCities[0] = bestCities[bestSize];
+            bestDistances[0] = bestDistances[bestSize];
+            siftDown(0);
+        }
+    }
+
+
+    /**
+     * Searches a range of the tree for cities closer than the ones already found
+     * @param low - Start of the range
+     * @param high - End of the range, not included
+     * @param splitOnX - Whether this level splits on the x co-ordinate
+     * @param city - The city being searched around
+     */
+    private void search(int low, int high, boolean splitOnX, int city){
+        if(low >= high){
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        int node = tree[middle];
+        if(node != city){
+            offer(node, squaredDistance(city, node));
+        }
+
+        //Search the side the city is on first, the other side only if it could hold something closer
+        long difference = coordinate(city, splitOnX) - coordinate(node, splitOnX);
+        if(difference < 0){
+            search(low, middle, !splitOnX, city);
+            if(bestSize < maxSize || difference * difference <= bestDistances[0]){
+                search(middle + 1, high, !splitOnX, city);
+            }
+        } else {
+            search(middle + 1, high, !splitOnX, city);
+            if(bestSize < maxSize || difference * difference <= bestDistances[0]){
+                search(low, middle, !splitOnX, city);
+            }
+        }
+    }
+
+
+    /**
+     * Works out the squared distance between two cities
+     * @param from - The first city
+     * @param to - The second city
+     * @return - The squared distance
+     */
+    private long squaredDistance(int from, int to){
+        long xDis = xCoordinates[from] - xCoordinates[to];
+        long yDis = yCoordinates[from] - yCoordinates[to];
+        return xDis * xDis + yDis * yDis;
+    }
+
+
+    /**
+     * Adds a city to the heap if it is closer than the furthest one kept
+     * @param city - The city found
+     * @param distance - Its squared distance
+     */
+    private void offer(int city, long distance){
+        if(bestSize < maxSize){
+            //Heap not full, add to the bottom and move it up
+            int i = bestSize++;
+            bestCities[i] = city;
+            bestDistances[i] = distance;
+            while(i > 0){
+                int parent = (i - 1) / 2;
+                if(!isFurther(i, parent)){
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        } else if(distance < bestDistances[0] || (distance == bestDistances[0] && city < bestCities[0])){
+            //Replace the furthest city
+            bestCities[0] = city;
+            bestDistances[0] = distance;
+            siftDown(0);
+        }
+    }
+
+
+    /**
+     * Moves an element down the heap until both of its children are closer
+     * @param i - Position of the element
+     */
+    private void siftDown(int i){
+        while(true){
+            int furthest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if(left < bestSize && isFurther(left, furthest)){
+                furthest = left;
+            }
+            if(right < bestSize && isFurther(right, furthest)){
+                furthest = right;
+            }
+            if(furthest == i){
+                return;
+            }
+            swap(i, furthest);
+            i = furthest;
+        }
+    }
+
+
+    /**
+     * Checks whether one heap element is further away than another, ties broken by city index
+     * @param i - First heap position
+     * @param j - Second heap position
+     * @return - Whether the first is further away
+     */
+    private boolean isFurther(int i, int j){
+        return bestDistances[i] > bestDistances[j] || (bestDistances[i] == bestDistances[j] && bestCities[i] > bestCities[j]);
+    }
+
+
+    /**
+     * Swaps two heap elements
+     * @param i - First heap position
+     * @param j - Second heap position
+     */
+    private void swap(int i, int j){
+        int tempCity = bestCities[i];
+        bestCities[i] = bestCities[j];
+        bestCities[j] = tempCity;
+        long tempDistance = bestDistances[i];
+        bestDistances[i] = bestDistances[j];
+        bestDistances[j] = tempDistance;
+    }
+}
@@ -0,0 +1,199 @@
+package Genetics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Distance provider that stores the lower half of the distance matrix in a memory mapped file
+ * Used for instances that are too large for the matrix to fit on the heap
+ * The file is kept next to the instance so later runs can map it straight back in without
+ * working out the distances again
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @version 1.1 - An existing file is only opened for reading when it is reused
+ * @see DistanceProvider
+ * @see DistanceMatrix
+ */
+public class MappedDistanceMatrix implements DistanceProvider {
+    private static final int MAGIC = 0x54535044;                   //Marks the start of a distance file
+    private static final int HEADER_BYTES = 32;                     //Space at the start of the file for the header
+    private static final int SEGMENT_SHIFT = 30;                    //Each mapped segment covers 1 GB of the file
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final DistanceMatrix.Precision precision;              //Whether the distances are stored as floats or ints
+    private final MappedByteBuffer[] segments;                     //The mapped pieces of the file
+
+
+    /**
+     * Creates the distance provider from the mapped file
+     * @param precision - The precision the distances are stored in
+     * @param segments - The mapped pieces of the file
+     */
+    private MappedDistanceMatrix(DistanceMatrix.Precision precision, MappedByteBuffer[] segments){
+        this.precision = precision;
+        this.segments = segments;
+    }
+
+
+    /**
+     * Opens the distance file for a city table, building it first if it does not exist
+     * or was built for different cities
+     * A matching file is only opened for reading, so read only or shared files can be reused and are never changed
+     * @param cityTable - The table of cities
+     * @param precision - The precision to store the distances in
+     * @param file - The file to store the distances in
+     * @return - The mapped distance matrix
+     * @throws IOException - If the file cannot be created or mapped
+     */
+    public static MappedDistanceMatrix open(CityTable cityTable, DistanceMatrix.Precision precision, File file) throws IOException {
+        int numOfCities = cityTable.size();
+        long fileBytes = HEADER_BYTES + DistanceMatrix.numOfEntries(numOfCities) * precision.getBytes();
+        long checksum = checksum(cityTable);
+
+        //Reuse the file if it was made for the same cities and precision
+        if (file.length() == fileBytes) {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+                 FileChannel channel = randomAccessFile.getChannel()) {
+                if (headerMatches(channel, numOfCities, precision, checksum)) {
+                    return new MappedDistanceMatrix(precision, map(channel, fileBytes, FileChannel.MapMode.READ_ONLY));
+                }
+            }
+        }
+
+        //Otherwise start the file again and fill it in
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            randomAccessFile.setLength(0);
+            randomAccessFile.setLength(fileBytes);
+            MappedByteBuffer[] segments = map(channel, fileBytes, FileChannel.MapMode.READ_WRITE);
+            fill(cityTable, precision, segments);
+
+            //Header is written last so a file that was only partly built is never reused
+            ByteBuffer header = segments[0];
+            header.putInt(0, MAGIC);
+            header.putInt(4, numOfCities);
+            header.putInt(8, precision.ordinal());
+            header.putLong(12, checksum);
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            return new MappedDistanceMatrix(precision, segments);
+        }
+    }
+
+
+    /**
+     * Gets the file the distances for an instance file are stored in
+     * @param instanceFile - The name of the file the cities were loaded from
+     * @param precision - The precision the distances are stored in
+     * @return - The distance file
+     */
+    public static File getDistanceFile(String instanceFile, DistanceMatrix.Precision precision){
+        return new File(instanceFile + "." + precision.name().toLowerCase() + ".dist");
+    }
+
+
+    /**
+     * Maps the whole file in pieces of up to 1 GB
+     * @param channel - The channel for the file
+     * @param fileBytes - The length of the file
+     * @param mode - Whether the file is being read or written
+     * @return - The mapped pieces of the file
+     * @throws IOException - If the file cannot be mapped
+     */
+    private static MappedByteBuffer[] map(FileChannel channel, long fileBytes, FileChannel.MapMode mode) throws IOException {
+        int numOfSegments = (int)(((fileBytes - 1) >>> SEGMENT_SHIFT) + 1);
+        MappedByteBuffer[] segments = new MappedByteBuffer[numOfSegments];
+        for (int i = 0; i < numOfSegments; i++) {
+            long start = (long)i << SEGMENT_SHIFT;
+            long size = Math.min(SEGMENT_MASK + 1, fileBytes - start);
+            segments[i] = channel.map(mode, start, size);
+        }
+        return segments;
+    }
+
+
+    /**
+     * Works out every distance and writes it into the mapped file
+     * @param cityTable - The table of cities
+     * @param precision - The precision to store the distances in
+     * @param segments - The mapped pieces of the file
+     */
+    private static void fill(CityTable cityTable, DistanceMatrix.Precision precision, MappedByteBuffer[] segments){
+        long offset = HEADER_BYTES;
+        for (int i = 1; i < cityTable.size(); i++) {
+            for (int j = 0; j < i; j++) {
+                double distance = cityTable.calcCoordinateDistance(i, j);
+                MappedByteBuffer segment = segments[(int)(offset >>> SEGMENT_SHIFT)];
+                int position = (int)(offset & SEGMENT_MASK);
+                if (precision == DistanceMatrix.Precision.FLOAT) {
+                    segment.putFloat(position, (float)distance);
+                } else {
+                    segment.putInt(position, (int)Math.round(distance));
+                }
+                offset += precision.getBytes();
+            }
+        }
+    }
+
+
+    /**
+     * Checks whether an existing file was built for the same cities and precision
+     * @param channel - The channel for the file
+     * @param numOfCities - The number of cities in the table
+     * @param precision - The precision wanted
+     * @param checksum - The checksum of the city co-ordinates
+     * @return - Whether the file can be reused
+     * @throws IOException - If the header cannot be read
+     */
+    private static boolean headerMatches(FileChannel channel, int numOfCities, DistanceMatrix.Precision precision, long checksum) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        return header.getInt(0) == MAGIC
+                && header.getInt(4) == numOfCities
+                && header.getInt(8) == precision.ordinal()
+                && header.getLong(12) == checksum;
+    }
+
+
+    /**
+     * Works out a checksum of the city co-ordinates in table order
+     * Used to tell whether a distance file still matches the instance
+     * @param cityTable - The table of cities
+     * @return - The checksum
+     */
+    private static long checksum(CityTable cityTable){
+        long checksum = 17;
+        for (int i = 0; i < cityTable.size(); i++) {
+            City city = cityTable.getCity(i);
+            checksum = checksum * 31 + city.getxCoordinate();
+            checksum = checksum * 31 + city.getyCoordinate();
+        }
+        return checksum;
+    }
+
+
+    /**
+     * Reads the distance between two cities straight from the mapped file
+     * @param from - Index of the first city in the city table
+     * @param to - Index of the second city in the city table
+     * @return - The stored distance between the two cities
+     */
+    @Override
+    public double getDistance(int from, int to){
+        if (from == to) {
+            return 0;
+        }
+        long offset = HEADER_BYTES + DistanceMatrix.entryIndex(from, to) * precision.getBytes();
+        MappedByteBuffer segment = segments[(int)(offset >>> SEGMENT_SHIFT)];
+        int position = (int)(offset & SEGMENT_MASK);
+        if (precision == DistanceMatrix.Precision.FLOAT) {
+            return segment.getFloat(position);
+        }
+        return segment.getInt(position);
+    }
+}
@@ -0,0 +1,55 @@
+package Genetics;
+
+/**
+ * Lists of the nearest cities to each city in a city table, closest first
+ * Lets crossover and mutation favour short edges instead of picking cities at random
+ * The lists are built with a k-d tree so building them takes O(n log n)
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see KdTree
+ * @see CityTable
+ */
+public class NeighbourLists {
+    private final int numOfNeighbours;          //Number of neighbours kept for each city
+    private final int[] neighbours;             //Neighbours of every city one after another
+
+
+    /**
+     * Builds the neighbour lists for a city table
+     * @param cityTable - The table of cities
+     * @param numOfNeighbours - The number of neighbours wanted for each city, capped at the number of other cities
+     */
+    public NeighbourLists(CityTable cityTable, int numOfNeighbours){
+        int numOfCities = cityTable.size();
+        this.numOfNeighbours = Math.max(0, Math.min(numOfNeighbours, numOfCities - 1));
+        this.neighbours = new int[numOfCities * this.numOfNeighbours];
+
+        //Search the tree around every city and store the results in its part of the array
+        KdTree tree = new KdTree(cityTable);
+        int[] nearest = new int[this.numOfNeighbours];
+        for(int city=0; city<numOfCities; city++){
+            tree.nearest(city, nearest);
+            System.arraycopy(nearest, 0, neighbours, city * this.numOfNeighbours, this.numOfNeighbours);
+        }
+    }
+
+
+    /**
+     * Gets the number of neighbours kept for each city
+     * @return - The number of neighbours
+     */
+    public int getNumOfNeighbours(){
+        return numOfNeighbours;
+    }
+
+
+    /**
+     * Gets one of the nearest cities to a city
+     * @param city - The city index
+     * @param rank - 0 for the closest city, 1 for the second closest and so on
+     * @return - The index of the neighbouring city
+     */
+    public int getNeighbour(int city, int rank){
+        return neighbours[city * numOfNeighbours + rank];
+    }
+}
@@ -0,0 +1,266 @@
+package Genetics;
+
+import java.util.Arrays;
+
+/**
+ * Storage for a route kept as a list of changes over another route that is never changed
+ * Used for children that only differ from their parent at a few positions, so a huge route does not
+ * have to be copied for every child
+ * A child of a patched route is patched over the same base route with the changes of both put together,
+ * so reading a position never goes through more than one list of changes
+ * Once the changes would take up too much room compared to a full copy the route is stored in full instead
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see TourStorage
+ * @see Chromosome
+ */
+final class PatchedTourStorage extends TourStorage {
+    private static final int BYTES_PER_CHANGE = 8;      //Room taken by one change, its position and its city
+    private static final int MAX_SHARE_OF_COPY = 4;     //Changes may take up at most a quarter of the room of a full copy
+
+    private final TourStorage base;     //The route the changes are made over, never changed
+    private int[] positions;            //Positions that differ from the base, in order
+    private int[] cities;               //The city at each changed position
+    private int numOfChanges;           //Number of changed positions
+
+
+    /**
+     * Creates the storage from changes that are already in order
+     * @param base - The route the changes are made over
+     * @param positions - Positions that differ from the base, in order
+     * @param cities - The city at each changed position
+     * @param numOfChanges - Number of changed positions
+     */
+    private PatchedTourStorage(TourStorage base, int[] positions, int[] cities, int numOfChanges){
+        this.base = base;
+        this.positions = positions;
+        this.cities = cities;
+        this.numOfChanges = numOfChanges;
+    }
+
+
+    /**
+     * Gets the most changes worth keeping over a route before it should be stored in full
+     * @param base - The route the changes are made over
+     * @return - The most changes to keep
+     */
+    private static int maxChanges(TourStorage base){
+        return (base.size() * base.getEncoding().getBytes()) / (BYTES_PER_CHANGE * MAX_SHARE_OF_COPY);
+    }
+
+
+    /**
+     * Creates storage for a route that differs from a parent route only at some positions
+     * The parent is not changed, and the positions may be given in any order and more than once
+     * @param parent - The storage of the parent route
+     * @param tour - The full child route, only read at the changed positions unless it is stored in full
+     * @param changedPositions - Positions where the child may differ from the parent
+     * @param numOfChanged - Number of changed positions given
+     * @return - Storage for the child, patched over the parent or stored in full if there are too many changes
+     */
+    static TourStorage patch(TourStorage parent, int[] tour, int[] changedPositions, int numOfChanged){
+        TourStorage base = parent;
+        int[] parentPositions = new int[0];
+        int[] parentCities = new int[0];
+        int parentChanges = 0;
+        if (parent instanceof PatchedTourStorage) {
+            //Patches over the same base so there is never more than one list of changes to look through
+            PatchedTourStorage patched = (PatchedTourStorage) parent;
+            base = patched.base;
+            parentPositions = patched.positions;
+            parentCities = patched.cities;
+            parentChanges = patched.numOfChanges;
+        }
+
+        int[] childPositions = sortedPositions(changedPositions, numOfChanged);
+        if (countMerged(parentPositions, parentChanges, childPositions, childPositions.length) > maxChanges(base)) {
+            //The changes have built up too far, so the child gets a full copy and becomes a new base
+            return full(parent.getEncoding(), tour);
+        }
+        return merge(base, parentPositions, parentCities, parentChanges, childPositions, tour);
+    }
+
+
+    /**
+     * Copies a route into new storage of its own
+     * @param encoding - The type to store the city indexes as
+     * @param tour - The city indexes in order of travel
+     * @return - The storage
+     */
+    private static TourStorage full(Encoding encoding, int[] tour){
+        //Always copied as the route may be a scratch array that is about to be reused
+        TourStorage storage = create(encoding, tour.length);
+        storage.write(tour, 0, 0, tour.length);
+        return storage;
+    }
+
+
+    /**
+     * Puts changed positions in order with each one only once
+     * @param changedPositions - The positions in any order
+     * @param numOfChanged - Number of positions given
+     * @return - The positions in order without repeats
+     */
+    private static int[] sortedPositions(int[] changedPositions, int numOfChanged){
+        int[] sorted = Arrays.copyOf(changedPositions, numOfChanged);
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (unique == 0 || sorted[unique - 1] != sorted[i]) {
+                sorted[unique] = sorted[i];
+                unique++;
+            }
+        }
+        return Arrays.copyOf(sorted, unique);
+    }
+
+
+    /**
+     * Counts the positions changed by either of two ordered lists
+     * @param first - First list of positions
+     * @param firstCount - Number of positions in the first list
+     * @param second - Second list of positions
+     * @param secondCount - Number of positions in the second list
+     * @return - The number of different positions
+     */
+    private static int countMerged(int[] first, int firstCount, int[] second, int secondCount){
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < firstCount || j < secondCount) {
+            if (j == secondCount || (i < firstCount && first[i] < second[j])) {
+                i++;
+            } else if (i == firstCount || second[j] < first[i]) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+            count++;
+        }
+        return count;
+    }
+
+
+    /**
+     * Puts the parent's changes together with the child's, the child's city winning where both change a position
+     * @param base - The route the changes are made over
+     * @param parentPositions - The parent's changed positions, in order
+     * @param parentCities - The parent's city at each changed position
+     * @param parentChanges - Number of changes the parent has
+     * @param childPositions - The child's changed positions, in order without repeats
+     * @param tour - The full child route
+     * @return - The patched storage
+     */
+    private static PatchedTourStorage merge(TourStorage base, int[] parentPositions, int[] parentCities, int parentChanges,
+                                            int[] childPositions, int[] tour){
+        int total = countMerged(parentPositions, parentChanges, childPositions, childPositions.length);
+        int[] positions = new int[total];
+        int[] cities = new int[total];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < total; k++) {
+            if (j == childPositions.length || (i < parentChanges && parentPositions[i] < childPositions[j])) {
+                positions[k] = parentPositions[i];
+                cities[k] = parentCities[i];
+                i++;
+            } else {
+                if (i < parentChanges && parentPositions[i] == childPositions[j]) {
+                    i++;
+                }
+                positions[k] = childPositions[j];
+                cities[k] = tour[childPositions[j]];
+                j++;
+            }
+        }
+        return new PatchedTourStorage(base, positions, cities, total);
+    }
+
+
+    /**
+     * Gets the number of changed positions kept over the base route
+     * @return - The number of changes
+     */
+    int getNumOfChanges(){
+        return numOfChanges;
+    }
+
+
+    /**
+     * Finds where a position is in the list of changes
+     * @param position - The position in the route
+     * @return - Index in the list of changes, or minus the insertion point minus one if it is not changed
+     */
+    private int findChange(int position){
+        return Arrays.binarySearch(positions, 0, numOfChanges, position);
+    }
+
+
+    @Override
+    public Encoding getEncoding(){
+        return base.getEncoding();
+    }
+
+    @Override
+    public int size(){
+        return base.size();
+    }
+
+    @Override
+    public int get(int index){
+        int change = findChange(index);
+        return change >= 0 ? cities[change] : base.get(index);
+    }
+
+    @Override
+    public void set(int index, int city){
+        //The base is shared so the change is only ever added to this route's list
+        int change = findChange(index);
+        if (change >= 0) {
+            cities[change] = city;
+            return;
+        }
+        int insertAt = -change - 1;
+        if (numOfChanges == positions.length) {
+            int newLength = Math.max(4, positions.length * 2);
+            positions = Arrays.copyOf(positions, newLength);
+            cities = Arrays.copyOf(cities, newLength);
+        }
+        System.arraycopy(positions, insertAt, positions, insertAt + 1, numOfChanges - insertAt);
+        System.arraycopy(cities, insertAt, cities, insertAt + 1, numOfChanges - insertAt);
+        positions[insertAt] = index;
+        cities[insertAt] = city;
+        numOfChanges++;
+    }
+
+    @Override
+    public void read(int start, int[] destination, int destinationStart, int length){
+        base.read(start, destination, destinationStart, length);
+        int change = findChange(start);
+        if (change < 0) {
+            change = -change - 1;
+        }
+        for (; change < numOfChanges && positions[change] < start + length; change++) {
+            destination[destinationStart + positions[change] - start] = cities[change];
+        }
+    }
+
+    @Override
+    public void write(int[] source, int sourceStart, int start, int length){
+        for (int i = 0; i < length; i++) {
+            set(start + i, source[sourceStart + i]);
+        }
+    }
+
+    @Override
+    public void copyTo(int start, TourStorage destination, int destinationStart, int length){
+        base.copyTo(start, destination, destinationStart, length);
+        int change = findChange(start);
+        if (change < 0) {
+            change = -change - 1;
+        }
+        for (; change < numOfChanges && positions[change] < start + length; change++) {
+            destination.set(destinationStart + positions[change] - start, cities[change]);
+        }
+    }
+}
@@ -17,13 +17,37 @@ import java.util.*;
  * @version 1.31 - General code tidy
  * @version 1.4 - Fixed errors revolving around testing
  * @version 1.5 - Final bug fixes
+ * @version 1.6 - Population owns a single city table shared by all of its chromosomes
+ * @version 1.7 - Builds a distance matrix once for each instance that is loaded
+ * @version 1.8 - Maps the distance matrix from a file when it is too big for the heap
+ * @version 1.9 - Chromosomes can be added as a batch so their distances are worked out in one pass
+ * @version 2.0 - Chromosomes are kept in an array that is sorted at most once per generation instead of a priority queue
+ * @version 2.1 - Can reject chromosomes whose route is already in the population
+ * @version 2.2 - Cities loaded from a file are renumbered along a Hilbert curve
+ * @version 2.3 - Can cache distances for instances too big for a distance matrix
+ * @version 2.4 - Can hash every route before it is measured so the fitness cache is used without rejecting duplicates
  * @see City
+ * @see CityTable
  * @see Chromosome
+ * @see PopulationView
+ * @see TourHash
  * @see Algorithm.GeneticAlgorithm
  */
-public class Population implements Iterable<Chromosome>{
-    private PriorityQueue<Chromosome> chromosomes;             //The chromosomes/routes in the population
+public class Population implements Iterable<Chromosome>, PopulationView{
+    private Chromosome[] chromosomes;                          //The chromosomes/routes in the population
+    private int numOfChromosomes;                              //The number of chromosomes added so far
+    private int bestIndex;                                     //Index of the chromosome with the shortest distance, -1 if empty
+    private boolean sorted;                                    //Whether the chromosomes are in order of distance, best first
     private int popSize;                                       //The size of the population
+    private boolean rejectDuplicates;                          //Whether routes already in the population are turned away
+    private TourHashSet tourHashes;                            //Hashes of the routes in the population, kept while rejecting duplicates
+    private boolean hashRoutes;                                //Whether every route is hashed before it is measured
+    private CityTable cityTable;                               //The table of cities every chromosome indexes into
+
+    private static DistanceMatrix.Precision distancePrecision = DistanceMatrix.Precision.FLOAT;   //Precision to store the distance matrix in
+    private static long distanceMemoryBudget = Runtime.getRuntime().maxMemory() / 4;             //Most bytes the distance matrix may use
+    private static long distanceCacheBudget = 0;                                                  //Most bytes a distance cache may use, 0 to work distances out every time
+    private static boolean spatialOrdering = true;                                                //Whether cities loaded from a file are renumbered along a Hilbert curve
 
 
     /**
@@ -33,20 +57,161 @@ public class Population implements Iterable<Chromosome>{
      */
     public Population(int popSize) {
         this.popSize = popSize;
-        chromosomes = new PriorityQueue<>();
+        chromosomes = new Chromosome[popSize];
+        bestIndex = -1;
+        sorted = true;
     }
 
 
     /**
      * Adds a chromosome to the population
      * @param chromosome - Chromosome to add to the pop
+     * @return - Whether the chromosome was added, false if the pop is full or it is a duplicate being rejected
      */
-    public void add(Chromosome chromosome) {
+    public boolean add(Chromosome chromosome) {
         //Check if pop is full
-        if (chromosomes.size() == popSize) {
+        if (numOfChromosomes >= popSize) {
             System.out.println("Pop size already full");
+            return false;
+        }
+        //Check if the route is already in the pop
+        if (rejectDuplicates && !tourHashes.add(chromosome.getTourHash())) {
+            return false;
+        }
+        if (hashRoutes) {
+            chromosome.getTourHash();
+        }
+        store(chromosome);
+        return true;
+    }
+
+
+    /**
+     * Stores a chromosome at the end of the population once it is known there is room for it
+     * @param chromosome - Chromosome to store
+     */
+    private void store(Chromosome chromosome) {
+        //The first chromosome added decides the city table if one has not been set
+        if (cityTable == null) {
+            cityTable = chromosome.getCityTable();
+        }
+        if (chromosomes.length < popSize) {
+            chromosomes = Arrays.copyOf(chromosomes, popSize);
+        }
+        chromosomes[numOfChromosomes] = chromosome;
+
+        //Keeps track of the best so it can be found without searching
+        if (bestIndex == -1 || chromosome.getDistance() < chromosomes[bestIndex].getDistance()) {
+            bestIndex = numOfChromosomes;
+        }
+        if (numOfChromosomes > 0 && chromosome.getDistance() < chromosomes[numOfChromosomes - 1].getDistance()) {
+            sorted = false;
+        }
+        numOfChromosomes++;
+    }
+
+
+    /**
+     * Adds a batch of chromosomes to the population
+     * The distances of the chromosomes are all worked out in one pass before they are added
+     * When duplicates are being rejected they are taken out before any distances are worked out
+     * @param chromosomes - Chromosomes to add to the pop
+     * @return - The number of chromosomes added
+     */
+    public int addAll(List<Chromosome> chromosomes) {
+        if (chromosomes.isEmpty()) {
+            return 0;
+        }
+        if (!rejectDuplicates) {
+            if (hashRoutes) {
+                chromosomes.forEach(Chromosome::getTourHash);
+            }
+            chromosomes.get(0).getCityTable().getBatchEvaluator().evaluate(chromosomes);
+            int added = 0;
+            for (Chromosome chromosome : chromosomes) {
+                if (add(chromosome)) {
+                    added++;
+                }
+            }
+            return added;
+        }
+
+        //Only keeps the routes that are new and fit in the pop
+        ArrayList<Chromosome> newChromosomes = new ArrayList<>();
+        for (Chromosome chromosome : chromosomes) {
+            if (numOfChromosomes + newChromosomes.size() < popSize && tourHashes.add(chromosome.getTourHash())) {
+                newChromosomes.add(chromosome);
+            }
+        }
+        if (!newChromosomes.isEmpty()) {
+            newChromosomes.get(0).getCityTable().getBatchEvaluator().evaluate(newChromosomes);
+        }
+        newChromosomes.forEach(this::store);
+        return newChromosomes.size();
+    }
+
+
+    /**
+     * Sets whether chromosomes whose route is already in the population are turned away
+     * @param rejectDuplicates - Whether to reject duplicate routes
+     */
+    public void setRejectDuplicates(boolean rejectDuplicates) {
+        if (rejectDuplicates && !this.rejectDuplicates) {
+            //Hashes the routes already in the pop so new ones can be checked against them
+            rebuildTourHashes();
+        }
+        this.rejectDuplicates = rejectDuplicates;
+    }
+
+
+    /**
+     * Sets whether the route of every chromosome added is hashed before it is measured
+     * Routes are only looked up in the fitness cache once their hash is known, rejecting duplicates hashes them anyway
+     * @param hashRoutes - Whether to hash every route
+     */
+    public void setHashRoutes(boolean hashRoutes) {
+        this.hashRoutes = hashRoutes;
+    }
+
+
+    /**
+     * Gets whether chromosomes whose route is already in the population are turned away
+     * @return - Whether duplicate routes are rejected
+     */
+    public boolean isRejectingDuplicates() {
+        return rejectDuplicates;
+    }
+
+
+    /**
+     * Checks whether a route is already in the population
+     * @param chromosome - The chromosome with the route to look for
+     * @return - Whether a chromosome with the same route is in the population
+     */
+    public boolean containsRoute(Chromosome chromosome) {
+        if (rejectDuplicates) {
+            return tourHashes.contains(chromosome.getTourHash());
+        }
+        for (int i = 0; i < numOfChromosomes; i++) {
+            if (chromosomes[i].getTourHash() == chromosome.getTourHash()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Hashes every route in the population
+     */
+    private void rebuildTourHashes() {
+        if (tourHashes == null) {
+            tourHashes = new TourHashSet(popSize);
         } else {
-            chromosomes.add(chromosome);
+            tourHashes.clear();
+        }
+        for (int i = 0; i < numOfChromosomes; i++) {
+            tourHashes.add(chromosomes[i].getTourHash());
         }
     }
 
@@ -59,14 +224,18 @@ public class Population implements Iterable<Chromosome>{
      */
     public void populateGeneration(City[] cities, boolean shuffle) {
         //Check if pop is full
-        if (chromosomes.size() == popSize) {
+        if (numOfChromosomes >= popSize) {
             System.out.println("Population full!");
         } else {
+            if (cityTable == null) {
+                cityTable = new CityTable(cities);
+            }
             //While pop is not full keep adding chromosomes
-            while (chromosomes.size() < popSize) {
-                Chromosome chrome = new Chromosome(cities, shuffle);
-                chromosomes.add(chrome);
+            ArrayList<Chromosome> newChromosomes = new ArrayList<>();
+            while (numOfChromosomes + newChromosomes.size() < popSize) {
+                newChromosomes.add(new Chromosome(cityTable, shuffle));
             }
+            addAll(newChromosomes);
         }
     }
 
@@ -75,7 +244,13 @@ public class Population implements Iterable<Chromosome>{
      * Clears the population
      */
     public void clear() {
-        chromosomes.clear();
+        Arrays.fill(chromosomes, 0, numOfChromosomes, null);
+        numOfChromosomes = 0;
+        bestIndex = -1;
+        sorted = true;
+        if (tourHashes != null) {
+            tourHashes.clear();
+        }
     }
 
 
@@ -85,7 +260,16 @@ public class Population implements Iterable<Chromosome>{
      * @return the array of Cities
      */
     public City[] getCities() {
-        return chromosomes.peek().getArray().clone();
+        return cityTable.getCities();
+    }
+
+
+    /**
+     * Gets the table of cities shared by the chromosomes in the population
+     * @return - The city table
+     */
+    public CityTable getCityTable() {
+        return cityTable;
     }
 
 
@@ -95,14 +279,41 @@ public class Population implements Iterable<Chromosome>{
      * @return the array of the Chromosomes
      */
     public Chromosome[] getChromosomes() {
-        Chromosome[] chromeList = new Chromosome[chromosomes.size()];
+        return Arrays.copyOf(chromosomes, numOfChromosomes);
+    }
+
+
+    /**
+     * Gets the chromosome stored at an index
+     * @param index - The index of the chromosome
+     * @return - The chromosome at that index
+     */
+    public Chromosome get(int index) {
+        return chromosomes[index];
+    }
+
+
+    /**
+     * Gets the distance of the chromosome stored at an index
+     * @param index - The index of the chromosome
+     * @return - The distance of the chromosome
+     */
+    @Override
+    public int getDistance(int index) {
+        return chromosomes[index].getDistance();
+    }
 
-        int i = 0;
-        for (Chromosome chromo : chromosomes) {
-            chromeList[i++] = chromo;
-        }
 
-        return chromeList;
+    /**
+     * Puts the chromosomes in order of distance, best first
+     * Does nothing if nothing has been added since the last sort, so it is only done once per generation
+     */
+    public void sortByFitness() {
+        if (!sorted) {
+            Arrays.sort(chromosomes, 0, numOfChromosomes);
+            bestIndex = 0;
+            sorted = true;
+        }
     }
 
 
@@ -111,8 +322,9 @@ public class Population implements Iterable<Chromosome>{
      *
      * @return - size of population
      */
+    @Override
     public int size() {
-        return chromosomes.size();
+        return numOfChromosomes;
     }
 
 
@@ -135,9 +347,8 @@ public class Population implements Iterable<Chromosome>{
         //Creates a new population and adds new chromosomes/routes to the population
         //Will add shuffled routes for the size of the population
         Population population = new Population(sizeOfPop);
-        for (int i = 0; i < sizeOfPop; i++) {
-            population.add(new Chromosome(cities, shuffle));
-        }
+        population.cityTable = createCityTable(cities, null);
+        population.populateGeneration(cities, shuffle);
         return population;
     }
 
@@ -179,9 +390,8 @@ public class Population implements Iterable<Chromosome>{
 
             //Create population from those cities
             population = new Population(sizeOfPop);
-            for (int j = 0; j < sizeOfPop; j++) {
-                population.add(new Chromosome(cities, shuffle));
-            }
+            population.cityTable = createCityTable(cities, filename);
+            population.populateGeneration(cities, shuffle);
         } catch (FileNotFoundException errorMessage){
             System.out.println("FILE DOES NOT EXIST");
         }
@@ -244,21 +454,100 @@ public class Population implements Iterable<Chromosome>{
         //Creates a new population and adds new chromosomes/routes to the population
         //Will add shuffled routes for the size of the population
         Population population = new Population(sizeOfPop);
-        for (int i = 0; i < sizeOfPop; i++) {
-            population.add(new Chromosome(cities, shuffle));
-        }
+        population.cityTable = createCityTable(cities, null);
+        population.populateGeneration(cities, shuffle);
         return population;
 
     }
 
 
+    /**
+     * Creates the city table for a newly loaded instance
+     * Cities from a file are renumbered along a Hilbert curve, so nearby cities sit next to each other in memory
+     * Works out the distances between the cities once so routes only need to look them up
+     * @param cities - The cities in the instance
+     * @param filename - The file the cities were loaded from, null if they were not loaded from a file
+     * @return - The city table with its distance provider set
+     */
+    private static CityTable createCityTable(City[] cities, String filename) {
+        CityTable cityTable;
+        if (filename != null && spatialOrdering) {
+            cityTable = CityTable.createSpatiallyOrdered(cities);
+        } else {
+            cityTable = new CityTable(cities);
+        }
+        cityTable.setDistanceProvider(createDistanceProvider(cityTable, filename));
+        return cityTable;
+    }
+
+
+    /**
+     * Picks where the distances for an instance are kept
+     * The matrix is kept on the heap if it fits in the memory budget, otherwise it is mapped from a file
+     * next to the instance file so later runs can reuse it
+     * Instances that cannot be mapped can keep the distances used most in a cache instead, if a cache budget is set
+     * @param cityTable - The table of cities
+     * @param filename - The file the cities were loaded from, null if they were not loaded from a file
+     * @return - The distance provider to use
+     */
+    private static DistanceProvider createDistanceProvider(CityTable cityTable, String filename) {
+        if (filename != null && !DistanceMatrix.fits(cityTable.size(), distancePrecision, distanceMemoryBudget)) {
+            try {
+                return MappedDistanceMatrix.open(cityTable, distancePrecision, MappedDistanceMatrix.getDistanceFile(filename, distancePrecision));
+            } catch (IOException errorMessage) {
+                System.out.println("Could not map distance file: " + errorMessage.getMessage());
+            }
+        }
+        if (distanceCacheBudget > 0 && !DistanceMatrix.fits(cityTable.size(), distancePrecision, distanceMemoryBudget)) {
+            //Keeps the edges that are used most rather than every distance
+            System.out.println("Distance matrix will not fit in memory, recently used distances will be cached");
+            return new DistanceCache(cityTable, distanceCacheBudget);
+        }
+        //Falls back to working distances out when needed if the matrix does not fit
+        return DistanceMatrix.create(cityTable, distancePrecision, distanceMemoryBudget);
+    }
+
+
+    /**
+     * Sets how distance matrices are stored for instances loaded after this is called
+     * If a matrix would use more than the memory budget distances are worked out when needed instead
+     * @param precision - The precision to store the distances in
+     * @param memoryBudget - The most bytes a distance matrix may use
+     */
+    public static void setDistanceMatrixOptions(DistanceMatrix.Precision precision, long memoryBudget) {
+        distancePrecision = precision;
+        distanceMemoryBudget = memoryBudget;
+    }
+
+
+    /**
+     * Sets how much memory a distance cache may use for instances loaded after this is called
+     * The cache is only used when a distance matrix does not fit and cannot be mapped from a file
+     * @param memoryBudget - The most bytes the cache may use, 0 to work distances out every time instead
+     */
+    public static void setDistanceCacheBudget(long memoryBudget) {
+        distanceCacheBudget = Math.max(0, memoryBudget);
+    }
+
+
+    /**
+     * Sets whether cities loaded from a file after this is called are renumbered along a Hilbert curve
+     * Routes can still be given in the file's numbering through Chromosome.getOriginalTour
+     * @param renumber - Whether to renumber the cities
+     */
+    public static void setSpatialOrdering(boolean renumber) {
+        spatialOrdering = renumber;
+    }
+
+
     /**
      * Gets the population
      * @return - The population
      */
     public Population getPopulation() {
         Population population = new Population(popSize);
-        chromosomes.forEach((chromosome) -> population.add(chromosome));
+        population.cityTable = cityTable;
+        forEach(population::add);
         return population;
     }
 
@@ -267,8 +556,9 @@ public class Population implements Iterable<Chromosome>{
      * Sets the list of chromosomes/routes
      * @param chromosomes - List of chromosomes
      */
-    public void setChromosomes(PriorityQueue<Chromosome> chromosomes) {
-        this.chromosomes = chromosomes;
+    public void setChromosomes(Collection<Chromosome> chromosomes) {
+        clear();
+        chromosomes.forEach(this::add);
     }
 
 
@@ -300,7 +590,7 @@ public class Population implements Iterable<Chromosome>{
 
         //Print out the chromosomes in the population
         //Prints out the distances relating to them as well
-        for (Chromosome chromosome : chromosomes) {
+        for (Chromosome chromosome : this) {
             sb.append("\n");
             sb.append(chromosome);
             sb.append(" Distance: ");
@@ -315,7 +605,7 @@ public class Population implements Iterable<Chromosome>{
      * @return - The distance for the best chromosome
      */
     public int getFittest(){
-        return chromosomes.peek().getDistance();
+        return chromosomes[bestIndex].getDistance();
     }
 
 
@@ -324,7 +614,7 @@ public class Population implements Iterable<Chromosome>{
      * @return - iterator for the population
      */
     public Iterator<Chromosome> iterator(){
-        return chromosomes.iterator();
+        return Arrays.asList(chromosomes).subList(0, numOfChromosomes).iterator();
     }
 
 
@@ -335,11 +625,11 @@ public class Population implements Iterable<Chromosome>{
     public int getAverageFitness(){
         int totalDistance = 0;
         //Loops through the population's chromosomes and adds the distance together
-        for(Chromosome chromosome : chromosomes){
-            totalDistance += chromosome.getDistance();
+        for(int i=0; i<numOfChromosomes; i++){
+            totalDistance += chromosomes[i].getDistance();
         }
         //Gets the average distance
-        return totalDistance/chromosomes.size();
+        return totalDistance/numOfChromosomes;
     }
 
 
@@ -348,16 +638,9 @@ public class Population implements Iterable<Chromosome>{
      * @return - A chosen chromosome
      */
     public Chromosome getRandomChromosome(){
-        Chromosome[] array = new Chromosome[chromosomes.size()];
-
-        int i = 0;
-        for (Chromosome chromo : chromosomes) {
-            array[i++] = chromo;
-        }
-
         Random r=new Random();
-        int randomNumber=r.nextInt(chromosomes.size());
-        return array[randomNumber];
+        int randomNumber=r.nextInt(numOfChromosomes);
+        return chromosomes[randomNumber];
     }
 
 
@@ -366,7 +649,20 @@ public class Population implements Iterable<Chromosome>{
      * @return - The best chromosome to add
      */
     public Chromosome removeEliteValue(){
-        return chromosomes.poll();
+        if (numOfChromosomes == 0) {
+            return null;
+        }
+        sortByFitness();
+        Chromosome elite = chromosomes[0];
+        //Shuffles the rest up so they stay in order
+        System.arraycopy(chromosomes, 1, chromosomes, 0, numOfChromosomes - 1);
+        numOfChromosomes--;
+        chromosomes[numOfChromosomes] = null;
+        bestIndex = numOfChromosomes == 0 ? -1 : 0;
+        if (rejectDuplicates) {
+            rebuildTourHashes();
+        }
+        return elite;
     }
 
 
@@ -376,7 +672,8 @@ public class Population implements Iterable<Chromosome>{
      */
     public Population copyPopulation () {
         Population population = new Population(popSize);
-        chromosomes.forEach(population::add);
+        population.cityTable = cityTable;
+        forEach(population::add);
         return population;
     }
 
@@ -386,6 +683,6 @@ public class Population implements Iterable<Chromosome>{
      * @return - The best chromosome/route
      */
     public Chromosome getTheFittest(){
-        return chromosomes.peek();
+        return bestIndex == -1 ? null : chromosomes[bestIndex];
     }
 }
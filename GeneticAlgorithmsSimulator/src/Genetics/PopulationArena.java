@@ -0,0 +1,378 @@
+package Genetics;
+
+/**
+ * Population stored in flat arrays so a generation can be made without creating any objects
+ * Every route lives in one of two preallocated arrays, one for the current generation and one for
+ * the next, which swap over at the end of each generation
+ * The length of each route is kept in a matching array of doubles
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @version 1.1 - Routes can be added with a known length so they are not measured again
+ * @version 1.2 - Can keep a hash of each route and reject routes already in the next generation
+ * @version 1.3 - New routes are looked up in the fitness cache when there is one
+ * @version 1.4 - Routes are kept in the smallest type that can hold the city indexes of the instance
+ * @version 1.41 - Refuses populations that are not full or whose routes do not fit in one array
+ * @version 1.42 - Can keep route hashes without rejecting duplicates so new routes can use the fitness cache
+ * @see Population
+ * @see TourHash
+ * @see TourStorage
+ * @see PopulationView
+ * @see BatchEvaluator
+ */
+public class PopulationArena implements PopulationView {
+    private final CityTable cityTable;          //The table of cities the routes index into
+    private final int popSize;                  //The number of routes in each generation
+    private final int numOfCities;              //The number of cities in each route
+
+    private TourStorage currentTours;           //Routes of the current generation one after another
+    private TourStorage nextTours;              //Routes of the next generation as they are made
+    private double[] currentLengths;            //Length of each route in the current generation
+    private double[] nextLengths;               //Length of each route in the next generation
+    private int nextSize;                       //Number of routes added to the next generation so far
+    private long[] currentHashes;               //Hash of each route in the current generation, null until hashes are first kept
+    private long[] nextHashes;                  //Hash of each route in the next generation
+    private TourHashSet nextHashSet;            //Hashes of the routes already in the next generation
+    private boolean rejectDuplicates;           //Whether routes already in the next generation are turned away
+    private final int[] order;                  //Scratch array used to find the elites
+
+
+    /**
+     * Creates the arena and loads a population into it
+     * The population must be full, as any empty rows would be measured as routes of length 0
+     * @param population - The population to start from
+     * @throws IllegalArgumentException - If the population is not full or its routes do not fit in one array
+     */
+    public PopulationArena(Population population){
+        this.cityTable = population.getCityTable();
+        this.popSize = population.getPopSize();
+        this.numOfCities = cityTable.size();
+        if (population.size() != popSize) {
+            throw new IllegalArgumentException("Arena needs a full population, it has " + population.size() + " of " + popSize + " routes");
+        }
+        long totalCities = (long) popSize * numOfCities;
+        if (totalCities > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Arena cannot hold " + popSize + " routes of " + numOfCities + " cities, "
+                    + totalCities + " city indexes do not fit in one array");
+        }
+        currentTours = TourStorage.create(cityTable.getTourEncoding(), (int) totalCities);
+        nextTours = TourStorage.create(cityTable.getTourEncoding(), (int) totalCities);
+        currentLengths = new double[popSize];
+        nextLengths = new double[popSize];
+        order = new int[popSize];
+        load(population);
+    }
+
+
+    /**
+     * Checks whether a population is the same shape as the arena so it can be loaded in
+     * @param population - The population to check
+     * @return - Whether the population fits
+     */
+    public boolean fits(Population population){
+        return population.getCityTable() == cityTable && population.getPopSize() == popSize && population.size() == popSize;
+    }
+
+
+    /**
+     * Loads a population into the current generation
+     * @param population - The population to load
+     */
+    public void load(Population population){
+        int index = 0;
+        for (Chromosome chromosome : population) {
+            chromosome.getTourStorage().copyTo(0, currentTours, index * numOfCities, numOfCities);
+            index++;
+        }
+        cityTable.getBatchEvaluator().evaluate(currentTours, 0, popSize, currentLengths);
+        if (currentHashes != null) {
+            hashCurrentTours();
+            nextHashSet.clear();
+        }
+        nextSize = 0;
+    }
+
+
+    /**
+     * Sets whether routes already in the next generation are turned away
+     * Once turned on the arena keeps a hash of every route, even if it is turned off again
+     * @param rejectDuplicates - Whether to reject duplicate routes
+     */
+    public void setRejectDuplicates(boolean rejectDuplicates){
+        if (rejectDuplicates) {
+            keepHashes();
+        }
+        this.rejectDuplicates = rejectDuplicates;
+    }
+
+
+    /**
+     * Starts keeping a hash of every route, so new routes can be looked up in the fitness cache
+     * Rejecting duplicates turns this on as well, and once on it stays on
+     */
+    public void keepHashes(){
+        if (currentHashes == null) {
+            currentHashes = new long[popSize];
+            nextHashes = new long[popSize];
+            nextHashSet = new TourHashSet(popSize);
+            hashCurrentTours();
+            //Routes already added to the next generation need hashing too
+            for (int i = 0; i < nextSize; i++) {
+                nextHashes[i] = TourHash.hash(nextTours, i * numOfCities, numOfCities);
+                nextHashSet.add(nextHashes[i]);
+            }
+        }
+    }
+
+
+    /**
+     * Works out the hash of every route in the current generation
+     */
+    private void hashCurrentTours(){
+        for (int i = 0; i < popSize; i++) {
+            currentHashes[i] = TourHash.hash(currentTours, i * numOfCities, numOfCities);
+        }
+    }
+
+
+    /**
+     * Gets the hash of a route in the current generation
+     * @param index - The index of the route
+     * @return - The hash of the route, or TourHash.UNKNOWN if hashes are not being kept
+     */
+    public long getTourHash(int index){
+        return currentHashes == null ? TourHash.UNKNOWN : currentHashes[index];
+    }
+
+
+    /**
+     * Gets the number of routes in the current generation
+     * @return - The population size
+     */
+    @Override
+    public int size(){
+        return popSize;
+    }
+
+
+    /**
+     * Gets the distance of a route in the current generation
+     * @param index - The index of the route
+     * @return - The distance of the route
+     */
+    @Override
+    public int getDistance(int index){
+        return (int)currentLengths[index];
+    }
+
+
+    /**
+     * Gets the exact length of a route in the current generation
+     * @param index - The index of the route
+     * @return - The length of the route
+     */
+    public double getRouteLength(int index){
+        return currentLengths[index];
+    }
+
+
+    /**
+     * Gets the number of cities in each route
+     * @return - The number of cities
+     */
+    public int getNumOfCities(){
+        return numOfCities;
+    }
+
+
+    /**
+     * Copies a route from the current generation into an array supplied by the caller
+     * @param index - The index of the route
+     * @param destination - Array to copy the route into
+     */
+    public void copyTour(int index, int[] destination){
+        currentTours.read(index * numOfCities, destination, 0, numOfCities);
+    }
+
+
+    /**
+     * Adds a route to the next generation
+     * Its length is worked out when the generation is finished
+     * @param tour - The route to add
+     * @return - Whether the route was added, false if it is a duplicate being rejected
+     */
+    public boolean addNext(int[] tour){
+        return addNext(tour, Double.NaN, TourHash.UNKNOWN);
+    }
+
+
+    /**
+     * Adds a route whose length is already known to the next generation
+     * @param tour - The route to add
+     * @param routeLength - The length of the route, or NaN if it needs measuring
+     * @return - Whether the route was added, false if it is a duplicate being rejected
+     */
+    public boolean addNext(int[] tour, double routeLength){
+        return addNext(tour, routeLength, TourHash.UNKNOWN);
+    }
+
+
+    /**
+     * Adds a route whose length and hash may already be known to the next generation
+     * @param tour - The route to add
+     * @param routeLength - The length of the route, or NaN if it needs measuring
+     * @param tourHash - The hash of the route, or TourHash.UNKNOWN if it needs working out
+     * @return - Whether the route was added, false if it is a duplicate being rejected
+     */
+    public boolean addNext(int[] tour, double routeLength, long tourHash){
+        if (nextHashes != null) {
+            if (tourHash == TourHash.UNKNOWN) {
+                tourHash = TourHash.hash(tour);
+            }
+            //Duplicates are still recorded when they are let in so later copies can be found
+            if (!nextHashSet.add(tourHash) && rejectDuplicates) {
+                return false;
+            }
+            nextHashes[nextSize] = tourHash;
+        }
+        nextTours.write(tour, 0, nextSize * numOfCities, numOfCities);
+        nextLengths[nextSize] = routeLength;
+        nextSize++;
+        return true;
+    }
+
+
+    /**
+     * Copies the best routes of the current generation straight into the next generation
+     * @param numOfElites - The number of routes to copy
+     */
+    public void copyElitesToNext(int numOfElites){
+        //Partial selection sort, only the first few places are needed
+        for (int i = 0; i < popSize; i++) {
+            order[i] = i;
+        }
+        for (int i = 0; i < numOfElites && i < popSize; i++) {
+            int best = i;
+            for (int j = i + 1; j < popSize; j++) {
+                if (currentLengths[order[j]] < currentLengths[order[best]]) {
+                    best = j;
+                }
+            }
+            int temp = order[i];
+            order[i] = order[best];
+            order[best] = temp;
+
+            //Elites keep their length so they do not need measuring again
+            currentTours.copyTo(order[i] * numOfCities, nextTours, nextSize * numOfCities, numOfCities);
+            nextLengths[nextSize] = currentLengths[order[i]];
+            if (nextHashes != null) {
+                nextHashes[nextSize] = currentHashes[order[i]];
+                nextHashSet.add(nextHashes[nextSize]);
+            }
+            nextSize++;
+        }
+    }
+
+
+    /**
+     * Gets the number of routes added to the next generation so far
+     * @return - The size of the next generation
+     */
+    public int getNextSize(){
+        return nextSize;
+    }
+
+
+    /**
+     * Measures the new routes in the next generation and makes it the current generation
+     * The old current generation's arrays are reused for the generation after
+     */
+    public void swap(){
+        //Only measures the routes whose length is not already known
+        BatchEvaluator evaluator = cityTable.getBatchEvaluator();
+        for (int i = 0; i < nextSize; i++) {
+            if (Double.isNaN(nextLengths[i])) {
+                long tourHash = nextHashes != null ? nextHashes[i] : TourHash.UNKNOWN;
+                nextLengths[i] = evaluator.measure(nextTours, i * numOfCities, numOfCities, tourHash);
+            }
+        }
+
+        TourStorage tempTours = currentTours;
+        currentTours = nextTours;
+        nextTours = tempTours;
+
+        double[] tempLengths = currentLengths;
+        currentLengths = nextLengths;
+        nextLengths = tempLengths;
+
+        if (nextHashes != null) {
+            long[] tempHashes = currentHashes;
+            currentHashes = nextHashes;
+            nextHashes = tempHashes;
+            nextHashSet.clear();
+        }
+
+        nextSize = 0;
+    }
+
+
+    /**
+     * Gets the index of the best route in the current generation
+     * @return - The index of the shortest route
+     */
+    public int getFittestIndex(){
+        int best = 0;
+        for (int i = 1; i < popSize; i++) {
+            if (currentLengths[i] < currentLengths[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+
+    /**
+     * Gets the distance of the best route in the current generation
+     * @return - The shortest distance
+     */
+    public int getFittest(){
+        return getDistance(getFittestIndex());
+    }
+
+
+    /**
+     * Gets the average distance of the current generation
+     * @return - The average distance
+     */
+    public int getAverageFitness(){
+        int totalDistance = 0;
+        for (int i = 0; i < popSize; i++) {
+            totalDistance += getDistance(i);
+        }
+        return totalDistance / popSize;
+    }
+
+
+    /**
+     * Creates a chromosome from a route in the current generation
+     * @param index - The index of the route
+     * @return - The route as a chromosome
+     */
+    public Chromosome toChromosome(int index){
+        int[] tour = new int[numOfCities];
+        copyTour(index, tour);
+        return new Chromosome(cityTable, tour, currentLengths[index], getTourHash(index));
+    }
+
+
+    /**
+     * Creates a population from the current generation
+     * @return - The current generation as a population
+     */
+    public Population toPopulation(){
+        Population population = new Population(popSize);
+        for (int i = 0; i < popSize; i++) {
+            population.add(toChromosome(i));
+        }
+        return population;
+    }
+}
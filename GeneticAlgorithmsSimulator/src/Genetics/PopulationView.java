@@ -0,0 +1,25 @@
+package Genetics;
+
+/**
+ * Interface for a population whose members can be looked up by index
+ * Lets selection methods pick parents by index without needing chromosome objects
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see PopulationArena
+ */
+public interface PopulationView {
+
+    /**
+     * Gets the number of routes in the population
+     * @return - The number of routes
+     */
+    int size();
+
+
+    /**
+     * Gets the distance of a route in the population
+     * @param index - The index of the route
+     * @return - The distance of the route
+     */
+    int getDistance(int index);
+}
@@ -0,0 +1,119 @@
+package Genetics;
+
+/**
+ * Class that works out a 64 bit hash of a route that only depends on which edges it uses
+ * Each undirected edge gets its own random looking value and the hash is the sum of the values of
+ * every edge in the route, so the same route started at a different city or travelled the other way
+ * round gets the same hash
+ * As the hash is a sum it can be updated when a few edges change without going over the whole route again
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @version 1.1 - Routes held in tour storage can be hashed
+ * @see TourHashSet
+ * @see Chromosome
+ * @see Population
+ */
+public final class TourHash {
+    public static final long UNKNOWN = 0;       //Used when the hash of a route has not been worked out yet
+
+
+    /**
+     * Private constructor as the class only has static methods
+     */
+    private TourHash(){}
+
+
+    /**
+     * Gets the value for an edge, which is the same whichever way round the edge is travelled
+     * @param from - Index of the first city
+     * @param to - Index of the second city
+     * @return - The value of the edge
+     */
+    public static long edgeHash(int from, int to){
+        long low = Math.min(from, to);
+        long high = Math.max(from, to);
+        //SplitMix64 finaliser to spread the bits of the edge out
+        long z = ((high << 32) | low) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+
+    /**
+     * Works out the hash of a whole route, including the edge back to the start
+     * @param tour - The city indexes in order of travel
+     * @return - The hash of the route
+     */
+    public static long hash(int[] tour){
+        return hash(tour, 0, tour.length);
+    }
+
+
+    /**
+     * Works out the hash of a route stored in part of an array
+     * @param tours - The array holding the route
+     * @param start - Where the route starts in the array
+     * @param length - The number of cities in the route
+     * @return - The hash of the route
+     */
+    public static long hash(int[] tours, int start, int length){
+        long hash = 0;
+        for (int i = start; i < start + length - 1; i++) {
+            hash += edgeHash(tours[i], tours[i + 1]);
+        }
+        return hash + edgeHash(tours[start + length - 1], tours[start]);
+    }
+
+
+    /**
+     * Works out the hash of a route held in tour storage
+     * @param tours - The storage holding the route
+     * @param start - Where the route starts in the storage
+     * @param length - The number of cities in the route
+     * @return - The hash of the route
+     */
+    public static long hash(TourStorage tours, int start, int length){
+        long hash = 0;
+        for (int i = start; i < start + length - 1; i++) {
+            hash += edgeHash(tours.get(i), tours.get(i + 1));
+        }
+        return hash + edgeHash(tours.get(start + length - 1), tours.get(start));
+    }
+
+
+    /**
+     * Updates a hash when one edge of the route is swapped for another
+     * @param hash - The hash of the route before the change
+     * @param removedFrom - First city of the edge taken out
+     * @param removedTo - Second city of the edge taken out
+     * @param addedFrom - First city of the edge put in
+     * @param addedTo - Second city of the edge put in
+     * @return - The hash of the route after the change
+     */
+    public static long replaceEdge(long hash, int removedFrom, int removedTo, int addedFrom, int addedTo){
+        return hash - edgeHash(removedFrom, removedTo) + edgeHash(addedFrom, addedTo);
+    }
+
+
+    /**
+     * Works out how the hash changes if a section of the route is reversed
+     * Only the two edges at the ends of the section change, the edges inside it are the same just travelled backwards
+     * Must be called before the section is reversed
+     * @param tour - The city indexes in order of travel
+     * @param first - Position of the first city in the section
+     * @param last - Position of the last city in the section
+     * @return - The amount to add to the hash
+     */
+    public static long reverseChange(int[] tour, int first, int last){
+        int numOfCities = tour.length;
+        if (first == last || (last + 1) % numOfCities == first) {
+            //Nothing changes if one city or the whole route is reversed
+            return 0;
+        }
+        int before = tour[(first + numOfCities - 1) % numOfCities];
+        int after = tour[(last + 1) % numOfCities];
+        return edgeHash(before, tour[last]) + edgeHash(tour[first], after)
+                - edgeHash(before, tour[first]) - edgeHash(tour[last], after);
+    }
+}
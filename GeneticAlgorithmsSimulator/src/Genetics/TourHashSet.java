@@ -0,0 +1,119 @@
+package Genetics;
+
+import java.util.Arrays;
+
+/**
+ * Set of route hashes kept in a flat array so hashes do not need to be boxed
+ * Uses open addressing, with zero marking an empty slot and a separate flag for the hash zero itself
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see TourHash
+ */
+public class TourHashSet {
+    private long[] slots;                       //The hashes in the set, zero for an empty slot
+    private int size;                           //The number of hashes in the set
+    private boolean containsZero;               //Whether the hash zero is in the set
+
+
+    /**
+     * Creates a set with room for a number of hashes before it needs to grow
+     * @param expectedSize - The number of hashes expected
+     */
+    public TourHashSet(int expectedSize){
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        slots = new long[capacity];
+    }
+
+
+    /**
+     * Adds a hash to the set
+     * @param hash - The hash to add
+     * @return - Whether the hash was added, false if it was already in the set
+     */
+    public boolean add(long hash){
+        if (hash == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int slot = findSlot(slots, hash);
+        if (slots[slot] == hash) {
+            return false;
+        }
+        slots[slot] = hash;
+        size++;
+        if (size * 2 > slots.length) {
+            grow();
+        }
+        return true;
+    }
+
+
+    /**
+     * Checks whether a hash is in the set
+     * @param hash - The hash to look for
+     * @return - Whether the hash is in the set
+     */
+    public boolean contains(long hash){
+        if (hash == 0) {
+            return containsZero;
+        }
+        return slots[findSlot(slots, hash)] == hash;
+    }
+
+
+    /**
+     * Gets the number of hashes in the set
+     * @return - The number of hashes
+     */
+    public int size(){
+        return size;
+    }
+
+
+    /**
+     * Empties the set, keeping its capacity
+     */
+    public void clear(){
+        Arrays.fill(slots, 0);
+        size = 0;
+        containsZero = false;
+    }
+
+
+    /**
+     * Finds the slot a hash is in, or the empty slot it would go in
+     * @param table - The slots to search
+     * @param hash - The hash to find
+     * @return - The index of the slot
+     */
+    private static int findSlot(long[] table, long hash){
+        int mask = table.length - 1;
+        //The hashes are already well mixed so the low bits can be used directly
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (table[slot] != 0 && table[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+
+    /**
+     * Doubles the number of slots and puts the hashes back in
+     */
+    private void grow(){
+        long[] larger = new long[slots.length * 2];
+        for (long hash : slots) {
+            if (hash != 0) {
+                larger[findSlot(larger, hash)] = hash;
+            }
+        }
+        slots = larger;
+    }
+}
@@ -0,0 +1,336 @@
+package Genetics;
+
+/**
+ * Storage for one or more routes held one after another as city indexes
+ * The indexes are kept in the smallest type that can hold every city in the instance, so instances with
+ * up to 256 cities use a byte per city and instances with up to 65536 cities use a short per city
+ * Everything outside the storage works with int city indexes, so the encoding makes no difference to
+ * how the routes are used
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see Chromosome
+ * @see PopulationArena
+ * @see CityTable
+ */
+public abstract class TourStorage {
+
+    /**
+     * The types city indexes can be stored as
+     */
+    public enum Encoding {
+        BYTE(1, 1 << 8),
+        SHORT(2, 1 << 16),
+        INT(4, Integer.MAX_VALUE);
+
+        private final int bytes;            //Number of bytes used to store one city index
+        private final int maxCities;        //Most cities that can be stored with this encoding
+
+        Encoding(int bytes, int maxCities){
+            this.bytes = bytes;
+            this.maxCities = maxCities;
+        }
+
+
+        /**
+         * Gets the number of bytes used to store one city index
+         * @return - The number of bytes
+         */
+        public int getBytes(){
+            return bytes;
+        }
+
+
+        /**
+         * Picks the smallest encoding that can hold every city in an instance
+         * @param numOfCities - The number of cities in the instance
+         * @return - The encoding to use
+         */
+        public static Encoding forCities(int numOfCities){
+            for (Encoding encoding : values()) {
+                if (numOfCities <= encoding.maxCities) {
+                    return encoding;
+                }
+            }
+            return INT;
+        }
+    }
+
+
+    /**
+     * Creates empty storage
+     * @param encoding - The type to store the city indexes as
+     * @param size - The total number of city indexes to hold
+     * @return - The storage
+     */
+    public static TourStorage create(Encoding encoding, int size){
+        switch (encoding) {
+            case BYTE:
+                return new ByteStorage(new byte[size]);
+            case SHORT:
+                return new ShortStorage(new short[size]);
+            default:
+                return new IntStorage(new int[size]);
+        }
+    }
+
+
+    /**
+     * Creates storage holding a route
+     * With the int encoding the array is used as it is rather than copied, so it must not be changed afterwards
+     * @param encoding - The type to store the city indexes as
+     * @param tour - The city indexes in order of travel
+     * @return - The storage
+     */
+    public static TourStorage of(Encoding encoding, int[] tour){
+        if (encoding == Encoding.INT) {
+            return new IntStorage(tour);
+        }
+        TourStorage storage = create(encoding, tour.length);
+        storage.write(tour, 0, 0, tour.length);
+        return storage;
+    }
+
+
+    /**
+     * Gets the encoding the city indexes are stored as
+     * @return - The encoding
+     */
+    public abstract Encoding getEncoding();
+
+
+    /**
+     * Gets the total number of city indexes held
+     * @return - The size of the storage
+     */
+    public abstract int size();
+
+
+    /**
+     * Gets the city index stored at a position
+     * @param index - The position in the storage
+     * @return - The city index
+     */
+    public abstract int get(int index);
+
+
+    /**
+     * Stores a city index at a position
+     * @param index - The position in the storage
+     * @param city - The city index
+     */
+    public abstract void set(int index, int city);
+
+
+    /**
+     * Copies city indexes out of the storage into an int array
+     * @param start - Where to start reading from in the storage
+     * @param destination - Array to copy the city indexes into
+     * @param destinationStart - Where to start writing to in the array
+     * @param length - The number of city indexes to copy
+     */
+    public abstract void read(int start, int[] destination, int destinationStart, int length);
+
+
+    /**
+     * Copies city indexes from an int array into the storage
+     * @param source - Array to copy the city indexes from
+     * @param sourceStart - Where to start reading from in the array
+     * @param start - Where to start writing to in the storage
+     * @param length - The number of city indexes to copy
+     */
+    public abstract void write(int[] source, int sourceStart, int start, int length);
+
+
+    /**
+     * Copies city indexes into other storage with the same encoding
+     * @param start - Where to start reading from in this storage
+     * @param destination - The storage to copy into
+     * @param destinationStart - Where to start writing to in the other storage
+     * @param length - The number of city indexes to copy
+     */
+    public abstract void copyTo(int start, TourStorage destination, int destinationStart, int length);
+
+
+    /**
+     * Gets an int array holding a range of the city indexes
+     * Int storage gives back its own array, other encodings are read into the scratch array supplied
+     * @param start - Where the range starts in the storage
+     * @param length - The number of city indexes in the range
+     * @param scratch - Array the city indexes can be read into, at least as long as the range
+     * @return - The array holding the range, with the range starting at {@link #arrayOffset(int)}
+     */
+    public int[] toIntArray(int start, int length, int[] scratch){
+        read(start, scratch, 0, length);
+        return scratch;
+    }
+
+
+    /**
+     * Gets where a range starts in the array given back by toIntArray
+     * @param start - Where the range starts in the storage
+     * @return - Where the range starts in the array
+     */
+    public int arrayOffset(int start){
+        return 0;
+    }
+
+
+    /**
+     * Storage that keeps each city index in a byte
+     */
+    private static final class ByteStorage extends TourStorage {
+        private final byte[] cities;
+
+        ByteStorage(byte[] cities){
+            this.cities = cities;
+        }
+
+        @Override
+        public Encoding getEncoding(){
+            return Encoding.BYTE;
+        }
+
+        @Override
+        public int size(){
+            return cities.length;
+        }
+
+        @Override
+        public int get(int index){
+            return cities[index] & 0xFF;
+        }
+
+        @Override
+        public void set(int index, int city){
+            cities[index] = (byte) city;
+        }
+
+        @Override
+        public void read(int start, int[] destination, int destinationStart, int length){
+            for (int i = 0; i < length; i++) {
+                destination[destinationStart + i] = cities[start + i] & 0xFF;
+            }
+        }
+
+        @Override
+        public void write(int[] source, int sourceStart, int start, int length){
+            for (int i = 0; i < length; i++) {
+                cities[start + i] = (byte) source[sourceStart + i];
+            }
+        }
+
+        @Override
+        public void copyTo(int start, TourStorage destination, int destinationStart, int length){
+            System.arraycopy(cities, start, ((ByteStorage) destination).cities, destinationStart, length);
+        }
+    }
+
+
+    /**
+     * Storage that keeps each city index in a short
+     */
+    private static final class ShortStorage extends TourStorage {
+        private final short[] cities;
+
+        ShortStorage(short[] cities){
+            this.cities = cities;
+        }
+
+        @Override
+        public Encoding getEncoding(){
+            return Encoding.SHORT;
+        }
+
+        @Override
+        public int size(){
+            return cities.length;
+        }
+
+        @Override
+        public int get(int index){
+            return cities[index] & 0xFFFF;
+        }
+
+        @Override
+        public void set(int index, int city){
+            cities[index] = (short) city;
+        }
+
+        @Override
+        public void read(int start, int[] destination, int destinationStart, int length){
+            for (int i = 0; i < length; i++) {
+                destination[destinationStart + i] = cities[start + i] & 0xFFFF;
+            }
+        }
+
+        @Override
+        public void write(int[] source, int sourceStart, int start, int length){
+            for (int i = 0; i < length; i++) {
+                cities[start + i] = (short) source[sourceStart + i];
+            }
+        }
+
+        @Override
+        public void copyTo(int start, TourStorage destination, int destinationStart, int length){
+            System.arraycopy(cities, start, ((ShortStorage) destination).cities, destinationStart, length);
+        }
+    }
+
+
+    /**
+     * Storage that keeps each city index in an int
+     */
+    private static final class IntStorage extends TourStorage {
+        private final int[] cities;
+
+        IntStorage(int[] cities){
+            this.cities = cities;
+        }
+
+        @Override
+        public Encoding getEncoding(){
+            return Encoding.INT;
+        }
+
+        @Override
+        public int size(){
+            return cities.length;
+        }
+
+        @Override
+        public int get(int index){
+            return cities[index];
+        }
+
+        @Override
+        public void set(int index, int city){
+            cities[index] = city;
+        }
+
+        @Override
+        public void read(int start, int[] destination, int destinationStart, int length){
+            System.arraycopy(cities, start, destination, destinationStart, length);
+        }
+
+        @Override
+        public void write(int[] source, int sourceStart, int start, int length){
+            System.arraycopy(source, sourceStart, cities, start, length);
+        }
+
+        @Override
+        public void copyTo(int start, TourStorage destination, int destinationStart, int length){
+            System.arraycopy(cities, start, ((IntStorage) destination).cities, destinationStart, length);
+        }
+
+        @Override
+        public int[] toIntArray(int start, int length, int[] scratch){
+            //No need to copy, the range can be used where it is
+            return cities;
+        }
+
+        @Override
+        public int arrayOffset(int start){
+            return start;
+        }
+    }
+}
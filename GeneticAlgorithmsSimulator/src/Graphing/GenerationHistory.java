@@ -0,0 +1,194 @@
+package Graphing;
+
+import java.util.Arrays;
+
+/**
+ * Class to record a distance for each generation of a simulation so it can be graphed
+ * Distances are kept in a primitive array that grows as needed rather than a list of boxed integers
+ * A limit can be put on the number of points kept, once it is reached neighbouring points are averaged
+ * together so each point covers twice as many generations, which keeps long runs to a fixed size
+ * @author Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see GraphPlot
+ * @see Algorithm.GeneticAlgorithm
+ */
+public class GenerationHistory {
+    private static final int INITIAL_CAPACITY = 64;         //Number of points there is room for at first
+
+    private final int maxPoints;                            //Most points to keep before averaging them together, 0 for no limit
+    private double[] points;                                //Average distance over the generations covered by each point
+    private int numOfPoints;                                //Number of complete points stored
+    private int generationsPerPoint;                        //Number of generations each point covers
+    private double pendingTotal;                            //Total of the distances not yet making up a complete point
+    private int pendingCount;                               //Number of distances not yet making up a complete point
+    private int numOfGenerations;                           //Number of generations recorded
+
+
+    /**
+     * Creates a history that keeps the distance of every generation
+     */
+    public GenerationHistory(){
+        this(0);
+    }
+
+
+    /**
+     * Creates a history that keeps at most a set number of points
+     * The limit is rounded down to an even number, as points are averaged in pairs, and is at least 2
+     * @param maxPoints - The most points to keep, 0 or less for no limit
+     */
+    public GenerationHistory(int maxPoints){
+        if(maxPoints <= 0){
+            this.maxPoints = 0;
+        } else {
+            this.maxPoints = Math.max(2, maxPoints - (maxPoints % 2));
+        }
+        points = new double[this.maxPoints > 0 ? Math.min(this.maxPoints, INITIAL_CAPACITY) : INITIAL_CAPACITY];
+        generationsPerPoint = 1;
+    }
+
+
+    /**
+     * Records the distance of the next generation
+     * @param distance - The distance to record
+     */
+    public void add(double distance){
+        numOfGenerations++;
+        pendingTotal += distance;
+        pendingCount++;
+        if(pendingCount < generationsPerPoint){
+            return;
+        }
+
+        if(numOfPoints == maxPoints && maxPoints > 0){
+            //Full so average the points in pairs, the pending distances become the first half of the next point
+            halvePoints();
+            return;
+        }
+        if(numOfPoints == points.length){
+            int newCapacity = points.length * 2;
+            if(maxPoints > 0){
+                newCapacity = Math.min(newCapacity, maxPoints);
+            }
+            points = Arrays.copyOf(points, newCapacity);
+        }
+        points[numOfPoints] = pendingTotal / pendingCount;
+        numOfPoints++;
+        pendingTotal = 0;
+        pendingCount = 0;
+    }
+
+
+    /**
+     * Averages each pair of points into one point covering twice as many generations
+     */
+    private void halvePoints(){
+        for(int i=0; i<numOfPoints/2; i++){
+            points[i] = (points[2*i] + points[(2*i) + 1]) / 2;
+        }
+        numOfPoints = numOfPoints / 2;
+        generationsPerPoint = generationsPerPoint * 2;
+    }
+
+
+    /**
+     * Adds the points of another history onto the points of this one
+     * Used to total up the histories of several runs so they can be averaged, any points past the
+     * end of the shorter history are left as they are
+     * @param run - The history to add on
+     */
+    public void addRun(GenerationHistory run){
+        int runSize = run.size();
+        if(size() == 0){
+            //Takes on the layout of the first run added
+            if(points.length < runSize){
+                points = new double[runSize];
+            }
+            for(int i=0; i<runSize; i++){
+                points[i] = run.get(i);
+            }
+            numOfPoints = runSize;
+            generationsPerPoint = run.generationsPerPoint;
+            numOfGenerations = run.numOfGenerations;
+            return;
+        }
+        int shared = Math.min(size(), runSize);
+        for(int i=0; i<shared; i++){
+            points[i] += run.get(i);
+        }
+    }
+
+
+    /**
+     * Multiplies every complete point by a value, such as to turn a total of several runs into an average
+     * @param factor - The value to multiply by
+     */
+    public void scale(double factor){
+        for(int i=0; i<numOfPoints; i++){
+            points[i] *= factor;
+        }
+        pendingTotal *= factor;
+    }
+
+
+    /**
+     * Removes every recorded distance so the history can be reused
+     */
+    public void clear(){
+        numOfPoints = 0;
+        generationsPerPoint = 1;
+        pendingTotal = 0;
+        pendingCount = 0;
+        numOfGenerations = 0;
+    }
+
+
+    /**
+     * Gets the number of points, including a last point that does not yet cover all its generations
+     * @return - The number of points
+     */
+    public int size(){
+        return numOfPoints + (pendingCount > 0 ? 1 : 0);
+    }
+
+
+    /**
+     * Gets the distance at a point
+     * @param point - The point to get
+     * @return - The average distance over the generations the point covers
+     */
+    public double get(int point){
+        if(point == numOfPoints && pendingCount > 0){
+            return pendingTotal / pendingCount;
+        }
+        return points[point];
+    }
+
+
+    /**
+     * Gets the first generation a point covers, where 0 is the first generation recorded
+     * @param point - The point to get the generation of
+     * @return - The generation the point starts at
+     */
+    public int getGeneration(int point){
+        return point * generationsPerPoint;
+    }
+
+
+    /**
+     * Gets the number of generations each complete point covers
+     * @return - The number of generations per point
+     */
+    public int getGenerationsPerPoint(){
+        return generationsPerPoint;
+    }
+
+
+    /**
+     * Gets the number of generations that have been recorded
+     * @return - The number of generations
+     */
+    public int getNumOfGenerations(){
+        return numOfGenerations;
+    }
+}
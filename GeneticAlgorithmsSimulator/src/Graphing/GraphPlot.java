@@ -10,7 +10,6 @@ import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
 
 /**
  * Class for plotting the line graphs after a simulation is run
@@ -21,27 +20,28 @@ import java.util.ArrayList;
  * @version 1.2 - Added the average distances from each generation to the graph
  * @version 1.21 - Fixed bug with axis increments
  * @version 1.3 - Final bug checks
+ * @version 1.4 - Plots from generation histories, which may have several generations to each point
+ * @see GenerationHistory
  * @see Algorithm.GeneticAlgorithm
  */
 public class GraphPlot extends JFrame {
 
     private static final long serialVersionUID = 1L;
-    private ArrayList<Integer> bestDistOfEachGen;                 //Array list of the best distance found at each generation
-    private ArrayList<Integer> averageDistOfEachGen;              //Array list for the average distance found at each generation
-    private int maxNumOfGens;                                     //The maximum number of generations the GA will run for
+    private static final int MAX_X_TICKS = 50;                    //Most labels to put along the x axis
+    private GenerationHistory bestDistOfEachGen;                  //History of the best distance found at each generation
+    private GenerationHistory averageDistOfEachGen;               //History of the average distance found at each generation
 
     /**
      * Constructor fot graph plotting
      * Will set the variables of the class and set the chart up
      * @param title - Title of the window
-     * @param distances - The array of best distances of each generation
-     * @param generations - The number of generations the simulation was ran for
+     * @param distances - The history of best distances of each generation
+     * @param averageDistances - The history of average distances of each generation
      */
-    public GraphPlot(String title, ArrayList<Integer> distances, int generations, ArrayList<Integer> averageDistances){
+    public GraphPlot(String title, GenerationHistory distances, GenerationHistory averageDistances){
         super(title);
 
         bestDistOfEachGen = distances;
-        maxNumOfGens = generations;
 
         XYSeriesCollection dataset;
         averageDistOfEachGen = averageDistances;
@@ -57,15 +57,16 @@ public class GraphPlot extends JFrame {
                 dataset
         );
 
-        //Sets the x axis increments to 50
+        //Sets the x axis increments to 20, or wider for long runs so there are not too many labels
         XYPlot plot = chart.getXYPlot();
         NumberAxis axis = (NumberAxis) plot.getDomainAxis();
-        axis.setTickUnit(new NumberTickUnit(20));
+        int xIncrement = Math.max(20, distances.getNumOfGenerations() / MAX_X_TICKS);
+        axis.setTickUnit(new NumberTickUnit(xIncrement));
 
-        //Sets the y increment to 5000
+        //Sets the y increment to a thirtieth of the first distance
         NumberAxis yAxis = (NumberAxis) plot.getRangeAxis();
-        int axisRatio = (distances.get(0)/30);
-        yAxis.setTickUnit(new NumberTickUnit(axisRatio));
+        int axisRatio = distances.size() > 0 ? (int)(distances.get(0)/30) : 1;
+        yAxis.setTickUnit(new NumberTickUnit(Math.max(1, axisRatio)));
 
         ChartPanel panel = new ChartPanel(chart);
         panel.setPreferredSize(new Dimension(1000, 1350));
@@ -82,20 +83,14 @@ public class GraphPlot extends JFrame {
         XYSeries bestDistances = new XYSeries("Best Distance Found");
         XYSeries averageDistances = new XYSeries("Average Distance of the population");
 
-        //Sets up the x axis values to put as labels and get points
-        int[] gens = new int[maxNumOfGens];
-        for(int i=0; i<maxNumOfGens - 1; i++){
-            gens[i] = i+1;
-        }
-
-        //add data to dataset
-        for(int i=0; i<(bestDistOfEachGen.size() -1); i++){
-            bestDistances.add(gens[i], bestDistOfEachGen.get(i));
+        //add data to dataset, each point is placed at the first generation it covers
+        for(int i=0; i<bestDistOfEachGen.size(); i++){
+            bestDistances.add(bestDistOfEachGen.getGeneration(i) + 1, bestDistOfEachGen.get(i));
         }
 
         //Adds the average distance data
-        for(int i=0; i<(averageDistOfEachGen.size() -1); i++){
-            averageDistances.add(gens[i], averageDistOfEachGen.get(i));
+        for(int i=0; i<averageDistOfEachGen.size(); i++){
+            averageDistances.add(averageDistOfEachGen.getGeneration(i) + 1, averageDistOfEachGen.get(i));
         }
 
         //Adds the two lines to the graph and chart
@@ -14,6 +14,7 @@ import java.awt.*;
  * @version 1.1 - Added Scaling
  * @version 1.11 - Fixed scaling error bug
  * @version 1.2 - Final bug checks
+ * @version 1.3 - Reads the route straight from the chromosome instead of copying it
  * @see Chromosome
  * @see City
  */
@@ -134,8 +135,9 @@ public class TSPGraph extends JFrame {
          * @param g - The graphics window and tool
          */
         private void paintEdges(Graphics g) {
-            //Creates the route in the form of an array
-            City[] toPaint = routeToShow.getArray();
+            //Reads the route straight from the chromosome rather than copying it
+            Chromosome toPaint = routeToShow;
+            int numOfCities = toPaint.getNumOfCities();
 
             int xStart;
             int xEnd;
@@ -143,12 +145,12 @@ public class TSPGraph extends JFrame {
             int yEnd;
 
             //Loops through the route
-           for(int i=0; i<toPaint.length; i++){
+           for(int i=0; i<numOfCities; i++){
                //Checks it is not at the end of the array
-               if(i+1 != toPaint.length){
+               if(i+1 != numOfCities){
                    //Gets the cities to connect
-                   City fromCity = toPaint[i];
-                   City toCity = toPaint[i+1];
+                   City fromCity = toPaint.getCity(i);
+                   City toCity = toPaint.getCity(i+1);
 
                    //Draws the edge connecting the cities also adding the scale values to fit in the window
                    xStart = (int)((fromCity.getxCoordinate() - negativeBalanceX) / scaleX);
@@ -159,11 +161,12 @@ public class TSPGraph extends JFrame {
                }
            }
            //Connects the final element in the route back to the start to complete the route
-           City finalCity = toPaint[toPaint.length - 1];
+           City finalCity = toPaint.getCity(numOfCities - 1);
+           City firstCity = toPaint.getCity(0);
            xStart = (int)((finalCity.getxCoordinate() - negativeBalanceX) / scaleX) ;
            yStart = (int)((finalCity.getyCoordinate() - negativeBalanceY) / scaleY);
-           xEnd = (int)((toPaint[0].getxCoordinate() - negativeBalanceX) / scaleX);
-           yEnd = (int)((toPaint[0].getyCoordinate() - negativeBalanceY) / scaleY);
+           xEnd = (int)((firstCity.getxCoordinate() - negativeBalanceX) / scaleX);
+           yEnd = (int)((firstCity.getyCoordinate() - negativeBalanceY) / scaleY);
            g.drawLine(xStart , yStart, xEnd, yEnd);
         }
     }
@@ -14,6 +14,7 @@ import java.util.HashMap;
  * @version 1.1 - Fixed a bug in which it did not switch the combination over
  * @version 1.11 - Fixed a bug in which you couldn't load a file properly
  * @version 1.2 - Final bug checks
+ * @version 1.3 - Simulations keep the population in a flat arena
  * @see GeneticAlgorithm
  * @see Population
  * @see BarChart
@@ -71,6 +72,7 @@ public class SimAll {
         ga.setNumOfGens(maxGen);
         ga.setCrossoverRate(crossOver);
         ga.setMultiSim(true);
+        ga.setArenaMode(true);
 
         return ga;
     }
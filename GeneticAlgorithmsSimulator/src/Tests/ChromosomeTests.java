@@ -2,6 +2,8 @@ package Tests;
 
 import Genetics.Chromosome;
 import Genetics.City;
+import Genetics.CityTable;
+import Genetics.TourHash;
 import org.testng.annotations.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -10,7 +12,13 @@ import static org.junit.jupiter.api.Assertions.*;
  * @author - Aaron Luckett (aal16)
  * @version 1.0 - Initial Creation
  * @version 1.1 - Added tests to class
+ * @version 1.2 - Added tests for routes stored as city indexes
+ * @version 1.3 - Added test for routes created with a known length
+ * @version 1.4 - Added test for children kept as changes over their parent
+ * @version 1.5 - Added test for cities renumbered along a Hilbert curve
+ * @version 1.6 - Chromosomes are created from a city table
  * @see Chromosome
+ * @see CityTable
  */
 public class ChromosomeTests {
 
@@ -34,7 +42,7 @@ public class ChromosomeTests {
         //Creates array of cities
         City[] cities = createRoute();
         //Creates chromosome
-        Chromosome chrome1 = new Chromosome(cities, false);
+        Chromosome chrome1 = new Chromosome(new CityTable(cities), false);
 
         //Checks for matching array list
         assertEquals(chrome1.getArray()[0], cities[0]);
@@ -54,7 +62,7 @@ public class ChromosomeTests {
     public void routeDistanceChecker(){
         //Creates array of cities
         City[] cities = createRoute();
-        Chromosome chrome1 = new Chromosome(cities, false);
+        Chromosome chrome1 = new Chromosome(new CityTable(cities), false);
 
         //Calculates the distance of the chromosome
         int distance = chrome1.getDistance();
@@ -73,13 +81,13 @@ public class ChromosomeTests {
     public void compareToChecker(){
         //Creates array of cities
         City[] cities = createRoute();
-        Chromosome chrome1 = new Chromosome(cities, false);
+        Chromosome chrome1 = new Chromosome(new CityTable(cities), false);
 
         //Creates second chromosome
         City city3 = new City(9,9);
         City city4 = new City(21,21);
         City[] cities2 = {city3, city4};
-        Chromosome chrome2 = new Chromosome(cities2, false);
+        Chromosome chrome2 = new Chromosome(new CityTable(cities2), false);
 
         //Compares distances
         int result = chrome1.compareTo(chrome2);
@@ -105,7 +113,7 @@ public class ChromosomeTests {
     public void toStringChecker(){
         //Creates array of cities
         City[] cities = createRoute();
-        Chromosome chrome1 = new Chromosome(cities, false);
+        Chromosome chrome1 = new Chromosome(new CityTable(cities), false);
 
         //Checks the toString method returns the expected string layout
         assertEquals(chrome1.toString(), "[(" + 10 + "," + 10 + ")(" + 20 + "," + 20 + ")]");
@@ -120,9 +128,144 @@ public class ChromosomeTests {
     public void toStringChecker2(){
         //Creates array of cities
         City[] cities = createRoute();
-        Chromosome chrome1 = new Chromosome(cities, false);
+        Chromosome chrome1 = new Chromosome(new CityTable(cities), false);
 
         //Checks for expected toString method call layout
         assertNotEquals(chrome1.toString(), "([" + 15 + "," + 15 + ")(" + 20 + "," + 20 + ")]");
     }
+
+    /**
+     * Test for the city index constructor
+     * <p>
+     * Checks that a route of city indexes looks up the correct cities in the table
+     */
+    @Test
+    public void cityIndexConstructorTest(){
+        //Creates the table and a route that visits the cities backwards
+        CityTable table = new CityTable(createRoute());
+        Chromosome chrome1 = new Chromosome(table, new int[]{1, 0});
+
+        //Checks the cities come from the table in the route order
+        assertEquals(chrome1.getCity(0), table.getCity(1));
+        assertEquals(chrome1.getCity(1), table.getCity(0));
+        assertEquals(chrome1.getCityIndex(0), 1);
+        assertEquals(chrome1.getNumOfCities(), 2);
+
+        //Checks the distance is the same whichever way round the route is
+        assertEquals(chrome1.getDistance(), 28);
+    }
+
+    /**
+     * Test for the shared city table
+     * <p>
+     * Checks that chromosomes created from the same table share it and copy their routes out
+     */
+    @Test
+    public void sharedCityTableTest(){
+        //Creates two chromosomes from the same table
+        CityTable table = new CityTable(createRoute());
+        Chromosome chrome1 = new Chromosome(table, false);
+        Chromosome chrome2 = new Chromosome(table, true);
+
+        //Checks they share the table
+        assertSame(chrome1.getCityTable(), chrome2.getCityTable());
+
+        //Checks changing a copied route does not change the chromosome
+        int[] tour = chrome1.getTour();
+        tour[0] = 1;
+        assertEquals(chrome1.getCityIndex(0), 0);
+    }
+
+    /**
+     * Test for the known length constructor
+     * <p>
+     * Checks that a chromosome created with a known length uses it instead of measuring the route
+     */
+    @Test
+    public void knownLengthConstructorTest(){
+        CityTable table = new CityTable(createRoute());
+        Chromosome measured = new Chromosome(table, new int[] {0, 1});
+        Chromosome known = new Chromosome(table, new int[] {0, 1}, measured.getRouteLength());
+
+        //Checks both give the same length
+        assertEquals(known.getRouteLength(), measured.getRouteLength());
+        assertEquals(known.getDistance(), measured.getDistance());
+    }
+
+    /**
+     * Test for children kept as changes over their parent
+     * <p>
+     * Checks that a patched child and its own child give the right route without changing the parent,
+     * and that a child with too many changes is stored in full
+     */
+    @Test
+    public void patchedChildTest(){
+        City[] cities = new City[1000];
+        for(int i=0; i<cities.length; i++){
+            cities[i] = new City(i, (i * 7) % 1000);
+        }
+        CityTable table = new CityTable(cities);
+        Chromosome parent = new Chromosome(table, false);
+
+        //Swaps two cities and keeps only the change
+        int[] tour = parent.getTour();
+        tour[3] = 10;
+        tour[10] = 3;
+        Chromosome child = parent.createPatchedChild(tour, new int[] {3, 10}, 2, -1, TourHash.UNKNOWN);
+        assertTrue(child.isPatched());
+        assertArrayEquals(child.getTour(), tour);
+        assertEquals(parent.getCityIndex(3), 3);
+
+        //A child of the patched child keeps both sets of changes
+        tour[10] = 20;
+        tour[20] = 3;
+        Chromosome grandchild = child.createPatchedChild(tour, new int[] {10, 20, 10}, 3, -1, TourHash.UNKNOWN);
+        assertArrayEquals(grandchild.getTour(), tour);
+        assertEquals(child.getCityIndex(10), 3);
+        assertEquals(grandchild.getRouteLength(), new Chromosome(table, tour.clone()).getRouteLength(), 0.0001);
+
+        //Reversing the whole route changes too much to be worth patching
+        int[] reversed = new int[tour.length];
+        int[] positions = new int[tour.length];
+        for(int i=0; i<tour.length; i++){
+            reversed[i] = tour[tour.length - 1 - i];
+            positions[i] = i;
+        }
+        Chromosome full = parent.createPatchedChild(reversed, positions, positions.length, -1, TourHash.UNKNOWN);
+        assertFalse(full.isPatched());
+        assertArrayEquals(full.getTour(), reversed);
+    }
+
+    /**
+     * Test for cities renumbered along a Hilbert curve
+     * <p>
+     * Checks that a grid of cities given out of order is renumbered so each city is next to the one before,
+     * and that routes can still be given with the indexes the cities were loaded with
+     */
+    @Test
+    public void spatialOrderTest(){
+        City[] cities = new City[16];
+        for(int i=0; i<cities.length; i++){
+            //Spreads the grid through the array so the loaded order jumps around
+            int cell = (i * 5) % 16;
+            cities[i] = new City(cell % 4, cell / 4);
+        }
+        CityTable table = CityTable.createSpatiallyOrdered(cities);
+        assertTrue(table.isRenumbered());
+
+        //Following the table order only ever moves to a neighbouring grid cell
+        Chromosome route = new Chromosome(table, false);
+        double length = 0;
+        for(int i=0; i<cities.length - 1; i++){
+            assertSame(table.getCity(i), cities[table.getOriginalIndex(i)]);
+            length += table.calcDistance(i, i + 1);
+        }
+        assertEquals(length, 15, 0.0001);
+
+        //The original route gives back the city objects the route visits
+        int[] originalTour = route.getOriginalTour();
+        for(int i=0; i<originalTour.length; i++){
+            assertSame(cities[originalTour[i]], route.getCity(i));
+        }
+    }
 }
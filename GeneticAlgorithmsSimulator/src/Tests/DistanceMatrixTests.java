@@ -0,0 +1,180 @@
+package Tests;
+
+import Genetics.City;
+import Genetics.CityTable;
+import Genetics.CoordinateDistance;
+import Genetics.DistanceCache;
+import Genetics.DistanceMatrix;
+import Genetics.DistanceProvider;
+import Genetics.MappedDistanceMatrix;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class containing tests revolving around the DistanceMatrix class
+ * @author - Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @version 1.1 - Added test for the memory mapped matrix
+ * @version 1.2 - Added test for the distance cache
+ * @version 1.3 - Added test for reusing a read only distance file
+ * @see DistanceMatrix
+ * @see MappedDistanceMatrix
+ * @see DistanceCache
+ * @see CityTable
+ */
+public class DistanceMatrixTests {
+
+    /**
+     * Method to create a city table
+     * @return the city table with set coordinates
+     */
+    private CityTable createTable(){
+        return new CityTable(new City[]{new City(17,16), new City(20,20), new City(10,10), new City(20,16)});
+    }
+
+    /**
+     * Test for the float matrix
+     * <p>
+     * Checks the stored distances match the distances worked out from the co-ordinates
+     */
+    @Test
+    public void floatMatrixTest(){
+        CityTable table = createTable();
+        DistanceMatrix matrix = new DistanceMatrix(table, DistanceMatrix.Precision.FLOAT);
+
+        //Checks every pair in both directions
+        for(int i=0; i<table.size(); i++){
+            for(int j=0; j<table.size(); j++){
+                double expected = table.getCity(i).calcDistance(table.getCity(j));
+                assertEquals(expected, matrix.getDistance(i, j), 0.0001);
+                assertEquals(matrix.getDistance(i, j), matrix.getDistance(j, i));
+            }
+        }
+    }
+
+    /**
+     * Test for the int matrix
+     * <p>
+     * Checks the stored distances are rounded to the nearest whole number
+     */
+    @Test
+    public void intMatrixTest(){
+        DistanceMatrix matrix = new DistanceMatrix(createTable(), DistanceMatrix.Precision.INT);
+
+        //Checks an exact distance and a rounded one
+        assertEquals(5.0, matrix.getDistance(0, 1));
+        assertEquals(14.0, matrix.getDistance(1, 2));
+        assertEquals(0.0, matrix.getDistance(3, 3));
+    }
+
+    /**
+     * Test for the memory budget
+     * <p>
+     * Checks that distances are worked out when needed if the matrix does not fit
+     */
+    @Test
+    public void memoryBudgetTest(){
+        CityTable table = createTable();
+
+        //4 cities need 6 floats, 24 bytes
+        DistanceProvider fits = DistanceMatrix.create(table, DistanceMatrix.Precision.FLOAT, 24);
+        DistanceProvider tooBig = DistanceMatrix.create(table, DistanceMatrix.Precision.FLOAT, 23);
+
+        assertTrue(fits instanceof DistanceMatrix);
+        assertTrue(tooBig instanceof CoordinateDistance);
+    }
+
+    /**
+     * Test for the memory mapped matrix
+     * <p>
+     * Checks the mapped distances match the heap matrix, both when the file is built and when it is reused
+     */
+    @Test
+    public void mappedMatrixTest() throws IOException {
+        CityTable table = createTable();
+        DistanceMatrix matrix = new DistanceMatrix(table, DistanceMatrix.Precision.FLOAT);
+        File file = File.createTempFile("cities", ".dist");
+        file.deleteOnExit();
+
+        //First open builds the file, second open reuses it
+        MappedDistanceMatrix built = MappedDistanceMatrix.open(table, DistanceMatrix.Precision.FLOAT, file);
+        long lastModified = file.lastModified();
+        MappedDistanceMatrix reused = MappedDistanceMatrix.open(table, DistanceMatrix.Precision.FLOAT, file);
+
+        for(int i=0; i<table.size(); i++){
+            for(int j=0; j<table.size(); j++){
+                assertEquals(matrix.getDistance(i, j), built.getDistance(i, j));
+                assertEquals(matrix.getDistance(i, j), reused.getDistance(i, j));
+            }
+        }
+        assertEquals(lastModified, file.lastModified());
+    }
+
+    /**
+     * Test for reusing a read only distance file
+     * <p>
+     * Checks a matching file that cannot be written to is still mapped back in and is left as it was
+     * @throws IOException - If the distance file cannot be created
+     */
+    @Test
+    public void readOnlyMappedMatrixTest() throws IOException {
+        CityTable table = createTable();
+        File file = File.createTempFile("distances", ".dist");
+        file.deleteOnExit();
+        MappedDistanceMatrix built = MappedDistanceMatrix.open(table, DistanceMatrix.Precision.INT, file);
+        long length = file.length();
+        long lastModified = file.lastModified();
+
+        //Reuses the file once it can only be read
+        assertTrue(file.setWritable(false));
+        try {
+            MappedDistanceMatrix reused = MappedDistanceMatrix.open(table, DistanceMatrix.Precision.INT, file);
+            for(int i=0; i<table.size(); i++){
+                for(int j=0; j<table.size(); j++){
+                    assertEquals(built.getDistance(i, j), reused.getDistance(i, j));
+                }
+            }
+            assertEquals(length, file.length());
+            assertEquals(lastModified, file.lastModified());
+        } finally {
+            file.setWritable(true);
+        }
+    }
+
+    /**
+     * Test for the distance cache
+     * <p>
+     * Checks the cached distances match the co-ordinates, including after blocks have been thrown away,
+     * and that repeated lookups are counted as hits
+     */
+    @Test
+    public void distanceCacheTest(){
+        City[] cities = new City[500];
+        for(int i=0; i<cities.length; i++){
+            cities[i] = new City(i % 37, i / 37);
+        }
+        CityTable table = new CityTable(cities);
+        //Only room for a few blocks so the cache has to replace them
+        DistanceCache cache = new DistanceCache(table, 20000);
+        CoordinateDistance coordinates = new CoordinateDistance(table);
+
+        for(int i=0; i<cities.length; i++){
+            for(int j=0; j<cities.length; j += 7){
+                assertEquals(cache.getDistance(i, j), coordinates.getDistance(i, j), 0.001);
+            }
+        }
+        assertTrue(cache.size() <= cache.getCapacity());
+
+        //The same edge both ways is found in the block worked out the first time
+        cache.resetCounters();
+        cache.getDistance(300, 301);
+        cache.getDistance(301, 300);
+        assertEquals(cache.getMisses(), 1);
+        assertEquals(cache.getHits(), 1);
+        assertEquals(cache.getHitRate(), 0.5, 0.0001);
+    }
+}
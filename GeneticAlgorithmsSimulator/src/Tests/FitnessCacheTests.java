@@ -0,0 +1,101 @@
+package Tests;
+
+import Algorithm.GeneticAlgorithm;
+import Genetics.Chromosome;
+import Genetics.City;
+import Genetics.CityTable;
+import Genetics.FitnessCache;
+import Genetics.Population;
+import org.testng.annotations.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class containing tests revolving around the FitnessCache class
+ * @author - Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @version 1.1 - Routes are only looked up once their hash is known
+ * @version 1.2 - Added test for the cache being used without rejecting duplicates
+ * @see FitnessCache
+ * @see CityTable
+ */
+public class FitnessCacheTests {
+
+    /**
+     * Test for the least recently used length being thrown away
+     * <p>
+     * Checks that once the cache is full the length that has not been used for longest is removed
+     */
+    @Test
+    public void evictionTest(){
+        FitnessCache cache = new FitnessCache(2);
+        cache.put(1, 10);
+        cache.put(2, 20);
+
+        //Uses the first length so the second is the least recently used
+        assertEquals(cache.get(1), 10);
+        cache.put(3, 30);
+
+        //Checks the second length was removed
+        assertTrue(Double.isNaN(cache.get(2)));
+        assertEquals(cache.get(3), 30);
+        assertEquals(cache.size(), 2);
+    }
+
+    /**
+     * Test for the hit and miss counters
+     * <p>
+     * Checks that a chromosome with a route already measured is looked up in the cache once its hash is known,
+     * and that a route without a hash is measured without hashing it for the cache
+     */
+    @Test
+    public void chromosomeLookupTest(){
+        CityTable table = new CityTable(new City[] {new City(10,10), new City(50,20), new City(30,40)});
+        FitnessCache cache = new FitnessCache(10);
+        table.setFitnessCache(cache);
+
+        //A route with no hash skips the cache
+        Chromosome unhashed = new Chromosome(table, new int[] {0, 1, 2});
+        unhashed.getDistance();
+        assertFalse(unhashed.hasTourHash());
+        assertEquals(cache.getMisses(), 0);
+        assertEquals(cache.getHits(), 0);
+
+        //Measures a hashed route, then the same route backwards
+        Chromosome firstRoute = new Chromosome(table, new int[] {0, 1, 2});
+        Chromosome secondRoute = new Chromosome(table, new int[] {2, 1, 0});
+        firstRoute.getTourHash();
+        secondRoute.getTourHash();
+        int first = firstRoute.getDistance();
+        int second = secondRoute.getDistance();
+
+        //Checks the second was found in the cache
+        assertEquals(first, second);
+        assertEquals(cache.getMisses(), 1);
+        assertEquals(cache.getHits(), 1);
+        assertEquals(cache.getHitRate(), 0.5);
+    }
+
+
+    /**
+     * Test for the cache being used by the genetic algorithm
+     * <p>
+     * Checks that setting a cache size is enough for new routes to be looked up, without rejecting duplicates,
+     * whether the population is kept as chromosomes or in the arena
+     */
+    @Test
+    public void geneticAlgorithmLookupTest(){
+        for (boolean arenaMode : new boolean[] {false, true}) {
+            GeneticAlgorithm ga = new GeneticAlgorithm();
+            ga.setPopulation(Population.getRandomPopulation(10, 20, true));
+            ga.setNumOfGens(5);
+            ga.setArenaMode(arenaMode);
+            ga.setRejectDuplicates(false);
+            ga.setFitnessCacheSize(100);
+            ga.run();
+
+            FitnessCache cache = ga.getPopulation().getCityTable().getFitnessCache();
+            assertNotNull(cache);
+            assertTrue(cache.getHits() + cache.getMisses() > 0);
+        }
+    }
+}
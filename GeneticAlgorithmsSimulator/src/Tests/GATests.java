@@ -3,12 +3,31 @@ package Tests;
 import org.testng.annotations.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import Algorithm.GeneticAlgorithm;
+import Algorithm.Selection;
+import Algorithm.SelectionStrategy;
+import Genetics.Chromosome;
+import Genetics.Population;
+import Genetics.PopulationView;
+
+import java.util.Arrays;
+import java.util.Random;
 
 /**
  * Class containing tests revolving around the GeneticAlgorithm class
  * @author - Aaron Luckett (aal16)
  * @version 1.0 - Initial Creation
  * @version 1.1 - Added tests to class
+ * @version 1.2 - Added stochastic universal sampling to the selection type test
+ * @version 1.3 - Added test for registering a selection strategy
+ * @version 1.4 - Added tests for tournament selection and drawing parents again when duplicates use them up
+ * @version 1.5 - Added test for roulette wheel selection
+ * @version 1.6 - Added test for ranked selection against adding up the ranks one at a time
+ * @version 1.7 - Added test for PMX crossover
+ * @version 1.8 - Added test for cycle crossover
+ * @version 1.9 - Added test for alternating position crossover
+ * @version 2.0 - Added test for first order crossover
+ * @version 2.1 - Crossover tests moved to CrossoverTests so they call Crossover directly
+ * @version 2.2 - Added test for neighbour guided operators
  * @see GeneticAlgorithm
  */
 public class GATests {
@@ -92,6 +111,50 @@ public class GATests {
         g5.setSelectionType(GeneticAlgorithm.SelectionType.RANKED);
         assertEquals(g5.getSelectionType(), GeneticAlgorithm.SelectionType.RANKED);
 
+        g5.setSelectionType(GeneticAlgorithm.SelectionType.SUS);
+        assertEquals(g5.getSelectionType(), GeneticAlgorithm.SelectionType.SUS);
+
+    }
+
+
+    /**
+     * Test for selection strategies
+     * <p>
+     * Tests a strategy can be registered and used without being a selection type
+     */
+    @Test
+    public void testSelectionStrategy(){
+        //Every selection type is registered under its own name
+        for (GeneticAlgorithm.SelectionType type : GeneticAlgorithm.SelectionType.values()) {
+            assertEquals(Selection.create(type.name()).getName(), type.name());
+        }
+        assertNull(Selection.create("UNKNOWN"));
+
+        //Registers a strategy that always picks the first route
+        Selection.register("FIRST", () -> new SelectionStrategy() {
+            @Override
+            public String getName() {
+                return "FIRST";
+            }
+
+            @Override
+            public void prepare(PopulationView population) {}
+
+            @Override
+            public int select(Random random) {
+                return 0;
+            }
+        });
+        assertTrue(Selection.getRegisteredNames().contains("FIRST"));
+
+        GeneticAlgorithm g6 = new GeneticAlgorithm();
+        g6.setSelectionStrategy(Selection.create("FIRST"));
+        assertNull(g6.getSelectionType());
+        assertEquals(g6.getSelectionStrategy().getName(), "FIRST");
+
+        //Setting a selection type afterwards goes back to the built in strategy
+        g6.setSelectionType(GeneticAlgorithm.SelectionType.RANKED);
+        assertEquals(g6.getSelectionStrategy().getName(), "RANKED");
     }
 
     /**
@@ -120,4 +183,334 @@ public class GATests {
         assertEquals(g6.getCrossoverType(), GeneticAlgorithm.CrossoverType.APC);
 
     }
+
+
+    /**
+     * Test for tournament selection
+     * <p>
+     * Tests each tournament picks the fittest participant unless the underdog rule applies, that the distances
+     * are only read when the generation is prepared, and that a batch only holds indexes in the generation
+     */
+    @Test
+    public void testTournamentSelection(){
+        //Three routes so every tournament is the same size as the population, route 1 is the fittest
+        FixedView view = new FixedView(30, 10, 20);
+        SelectionStrategy tournament = Selection.create("TOURNAMENT");
+        tournament.prepare(view);
+        ScriptedRandom random = new ScriptedRandom();
+
+        //Every route drawn and the underdog roll fails, so the fittest wins
+        random.setInts(0, 1, 2, 4);
+        assertEquals(tournament.select(random), 1);
+
+        //Fittest not drawn, so the fittest of those drawn wins
+        random.setInts(0, 2, 0, 3);
+        assertEquals(tournament.select(random), 2);
+
+        //Underdog roll succeeds, so one of the other participants is picked instead of the fittest
+        random.setInts(0, 1, 2, 0, 0);
+        assertEquals(tournament.select(random), 0);
+        random.setInts(0, 1, 2, 0, 1);
+        assertEquals(tournament.select(random), 2);
+
+        //Distances changed after preparing are not seen until the next generation is prepared
+        view.distances[0] = 1;
+        random.setInts(0, 1, 2, 4);
+        assertEquals(tournament.select(random), 1);
+        tournament.prepare(view);
+        random.setInts(0, 1, 2, 4);
+        assertEquals(tournament.select(random), 0);
+
+        //A batch only holds indexes in the generation and the fittest is picked most
+        FixedView larger = new FixedView(50, 40, 30, 20, 10, 60, 70, 80);
+        tournament.prepare(larger);
+        int[] parents = new int[10000];
+        tournament.select(new Random(), parents, parents.length);
+        int[] picks = new int[larger.size()];
+        for (int parent : parents) {
+            assertTrue(parent >= 0 && parent < larger.size());
+            picks[parent]++;
+        }
+        for (int i = 0; i < picks.length; i++) {
+            assertTrue(i == 4 || picks[i] < picks[4]);
+        }
+    }
+
+
+    /**
+     * Test for roulette wheel selection
+     * <p>
+     * Tests routes are picked in proportion to their fitness, that a population of one route always picks it,
+     * and that a selection point landing exactly on a running total picks the route that total ends at
+     */
+    @Test
+    public void testRouletteWheelSelection(){
+        //One route a hundred times shorter than the rest, so it has 1 / 1.09 of the fitness
+        int[] distances = new int[10];
+        Arrays.fill(distances, 100);
+        distances[0] = 1;
+        SelectionStrategy roulette = Selection.create("ROULETTE");
+        roulette.prepare(new FixedView(distances));
+        int[] parents = new int[200000];
+        roulette.select(new Random(), parents, parents.length);
+        int shortestPicks = 0;
+        for (int parent : parents) {
+            assertTrue(parent >= 0 && parent < distances.length);
+            if (parent == 0) {
+                shortestPicks++;
+            }
+        }
+        assertEquals((double) shortestPicks / parents.length, 1 / 1.09, 0.01);
+
+        //A single route is always picked, wherever the wheel stops
+        ScriptedRandom random = new ScriptedRandom();
+        roulette.prepare(new FixedView(50));
+        random.setDoubles(0.0, 0.5, 0.999);
+        assertEquals(roulette.select(random), 0);
+        assertEquals(roulette.select(random), 0);
+        assertEquals(roulette.select(random), 0);
+
+        //Equal routes give running totals of 1, 2, 3 and 4, a point on a total picks the route it ends at
+        roulette.prepare(new FixedView(1, 1, 1, 1));
+        random.setDoubles(0.0, 0.25, 0.5, 0.75, 0.9);
+        assertEquals(roulette.select(random), 0);
+        assertEquals(roulette.select(random), 0);
+        assertEquals(roulette.select(random), 1);
+        assertEquals(roulette.select(random), 2);
+        assertEquals(roulette.select(random), 3);
+    }
+
+
+    /**
+     * Test for ranked selection
+     * <p>
+     * Tests the rank worked out straight from the stopping point is the same as adding up the ranks one at a
+     * time, for every stopping point of every population up to 399 routes, and for a population too big for
+     * the total of the ranks to fit in an int
+     */
+    @Test
+    public void testRankedSelection(){
+        SelectionStrategy ranked = Selection.create("RANKED");
+        ScriptedRandom random = new ScriptedRandom();
+        for (int size = 1; size < 400; size++) {
+            ranked.prepare(new FixedView(increasingDistances(size)));
+            int rankedTotal = (size * (size + 1)) / 2;
+            //Running total of the ranks, the worst route has a rank of 1
+            int rank = 1;
+            int runningTotal = 1;
+            for (int stoppingPoint = 0; stoppingPoint < rankedTotal; stoppingPoint++) {
+                while (runningTotal < stoppingPoint) {
+                    rank++;
+                    runningTotal += rank;
+                }
+                random.setInts(stoppingPoint);
+                //Routes are in order of distance so the route with a rank is found by counting back from the end
+                assertEquals(ranked.select(random), size - rank);
+            }
+        }
+
+        //Total of the ranks is over Integer.MAX_VALUE
+        int size = 70000;
+        long rankedTotal = ((long) size * (size + 1)) / 2;
+        ranked.prepare(new FixedView(increasingDistances(size)));
+        for (long checkRank : new long[] {1, 2, 3, 1000, 46341, 65535, 65536, 65537, 69999, 70000}) {
+            //Stopping points at the end of a rank's running total and just past it
+            for (long offset = -1; offset <= 1; offset++) {
+                double fraction = Math.max(0, (((checkRank * (checkRank + 1)) / 2) + offset) / (double) rankedTotal);
+                fraction = Math.min(fraction, Math.nextDown(1.0));
+                long stoppingPoint = (long) (fraction * rankedTotal);
+                long rank = 1;
+                while ((rank * (rank + 1)) / 2 < stoppingPoint) {
+                    rank++;
+                }
+                random.setDoubles(fraction);
+                assertEquals(ranked.select(random), size - (int) rank);
+            }
+        }
+    }
+
+
+    /**
+     * Creates distances that go up with the index, so the routes are already in order of fitness
+     * @param size - The number of routes
+     * @return - The distance of each route
+     */
+    private static int[] increasingDistances(int size){
+        int[] distances = new int[size];
+        for (int i = 0; i < size; i++) {
+            distances[i] = i + 1;
+        }
+        return distances;
+    }
+
+
+    /**
+     * Test for drawing parents in batches
+     * <p>
+     * Tests the selection strategy is prepared once a generation, even when rejecting duplicates uses up the
+     * batch of parents and more have to be drawn, and that the population stays full and valid
+     */
+    @Test
+    public void testParentBatches(){
+        for (boolean arenaMode : new boolean[] {false, true}) {
+            //Five cities only have twelve different routes, so a population of thirty is mostly duplicates
+            GeneticAlgorithm g7 = new GeneticAlgorithm();
+            g7.setPopulation(Population.getRandomPopulation(5, 30, true));
+            g7.setNumOfGens(4);
+            g7.setRejectDuplicates(true);
+            g7.setArenaMode(arenaMode);
+            CountingStrategy counting = new CountingStrategy(Selection.create("TOURNAMENT"));
+            g7.setSelectionStrategy(counting);
+            g7.run();
+
+            //Prepared once a generation but drawn from more often as duplicates used the batches up
+            assertEquals(counting.prepares, 4);
+            assertTrue(counting.batches > 4);
+
+            //Population is still full of valid routes
+            Population population = g7.getPopulation();
+            assertEquals(population.size(), 30);
+            for (Chromosome chromosome : population) {
+                assertTrue(isPermutation(chromosome.getTour()));
+            }
+        }
+    }
+
+
+    /**
+     * Test for neighbour guided operators
+     * <p>
+     * Tests the operators are only neighbour guided once turned on, and that edge recombination and mutation
+     * keep the population full of valid routes either way
+     */
+    @Test
+    public void testNeighbourGuided(){
+        assertFalse(new GeneticAlgorithm().isNeighbourGuided());
+        for (boolean neighbourGuided : new boolean[] {false, true}) {
+            for (boolean arenaMode : new boolean[] {false, true}) {
+                GeneticAlgorithm g8 = new GeneticAlgorithm();
+                g8.setPopulation(Population.getRandomPopulation(40, 20, true));
+                g8.setNumOfGens(5);
+                g8.setMutationRate(1);
+                g8.setCrossoverType(GeneticAlgorithm.CrossoverType.ERC);
+                g8.setArenaMode(arenaMode);
+                g8.setNeighbourGuided(neighbourGuided);
+                assertEquals(g8.isNeighbourGuided(), neighbourGuided);
+                g8.run();
+
+                Population population = g8.getPopulation();
+                assertEquals(population.size(), 20);
+                for (Chromosome chromosome : population) {
+                    assertTrue(isPermutation(chromosome.getTour()));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Checks a route visits every city once
+     * @param tour - The route to check
+     * @return - Whether the route is a permutation of the city indexes
+     */
+    private static boolean isPermutation(int[] tour){
+        boolean[] seen = new boolean[tour.length];
+        for (int city : tour) {
+            if (city < 0 || city >= tour.length || seen[city]) {
+                return false;
+            }
+            seen[city] = true;
+        }
+        return true;
+    }
+
+
+    /**
+     * Population view over a fixed set of distances
+     */
+    private static class FixedView implements PopulationView {
+        private final int[] distances;      //Distance of each route
+
+        FixedView(int... distances){
+            this.distances = distances;
+        }
+
+        @Override
+        public int size(){
+            return distances.length;
+        }
+
+        @Override
+        public int getDistance(int index){
+            return distances[index];
+        }
+    }
+
+
+    /**
+     * Random that hands out set values, so the draws a selection strategy makes can be controlled
+     */
+    private static class ScriptedRandom extends Random {
+        private static final long serialVersionUID = 1L;
+        private int[] ints = new int[0];            //Values to return from nextInt in order
+        private int nextInt;                        //Next value of ints to return
+        private double[] doubles = new double[0];   //Values to return from nextDouble in order
+        private int nextDouble;                     //Next value of doubles to return
+
+        void setInts(int... ints){
+            this.ints = ints;
+            nextInt = 0;
+        }
+
+        void setDoubles(double... doubles){
+            this.doubles = doubles;
+            nextDouble = 0;
+        }
+
+        @Override
+        public int nextInt(int bound){
+            return ints[nextInt++];
+        }
+
+        @Override
+        public double nextDouble(){
+            return doubles[nextDouble++];
+        }
+    }
+
+
+    /**
+     * Selection strategy that counts how often another strategy is prepared and drawn from
+     */
+    private static class CountingStrategy implements SelectionStrategy {
+        private final SelectionStrategy strategy;   //The strategy being counted
+        private int prepares;                       //Number of times the strategy was prepared
+        private int batches;                        //Number of batches of parents drawn
+
+        CountingStrategy(SelectionStrategy strategy){
+            this.strategy = strategy;
+        }
+
+        @Override
+        public String getName(){
+            return strategy.getName();
+        }
+
+        @Override
+        public void prepare(PopulationView population){
+            prepares++;
+            strategy.prepare(population);
+        }
+
+        @Override
+        public int select(Random random){
+            return strategy.select(random);
+        }
+
+        @Override
+        public void select(Random random, int[] parents, int numOfParents){
+            batches++;
+            strategy.select(random, parents, numOfParents);
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package Tests;
+
+import Graphing.GenerationHistory;
+import org.testng.annotations.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class containing tests revolving around the GenerationHistory class
+ * @author - Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see GenerationHistory
+ */
+public class GenerationHistoryTests {
+
+    /**
+     * Test for a history with no limit
+     * <p>
+     * Checks that every generation is kept as its own point, past the size the history starts at
+     */
+    @Test
+    public void unlimitedTest(){
+        GenerationHistory history = new GenerationHistory();
+        for(int i=0; i<200; i++){
+            history.add(i);
+        }
+
+        assertEquals(history.size(), 200);
+        assertEquals(history.getGenerationsPerPoint(), 1);
+        assertEquals(history.get(150), 150);
+        assertEquals(history.getGeneration(150), 150);
+    }
+
+    /**
+     * Test for points being averaged once the limit is reached
+     * <p>
+     * Checks the history stays within its limit and each point is the average of the generations it covers
+     */
+    @Test
+    public void downsampleTest(){
+        GenerationHistory history = new GenerationHistory(4);
+        for(int i=0; i<9; i++){
+            history.add(i);
+        }
+
+        //Points cover 0-1, 2-3, 4-5, 6-7 with 8 on its own at the end
+        assertEquals(history.getGenerationsPerPoint(), 2);
+        assertEquals(history.size(), 5);
+        assertEquals(history.get(0), 0.5);
+        assertEquals(history.get(3), 6.5);
+        assertEquals(history.get(4), 8);
+        assertEquals(history.getGeneration(3), 6);
+        assertEquals(history.getNumOfGenerations(), 9);
+    }
+
+    /**
+     * Test for averaging several runs
+     * <p>
+     * Checks that adding runs together and scaling gives the average of each generation
+     */
+    @Test
+    public void averageRunsTest(){
+        GenerationHistory first = new GenerationHistory();
+        GenerationHistory second = new GenerationHistory();
+        for(int i=0; i<3; i++){
+            first.add(10 * i);
+            second.add(20 * i);
+        }
+
+        GenerationHistory total = new GenerationHistory();
+        total.addRun(first);
+        total.addRun(second);
+        total.scale(0.5);
+        assertEquals(total.get(2), 30);
+
+        //Clearing lets the history be used again from the start
+        first.clear();
+        assertEquals(first.size(), 0);
+    }
+}
@@ -0,0 +1,67 @@
+package Tests;
+
+import Genetics.City;
+import Genetics.CityTable;
+import Genetics.NeighbourLists;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class containing tests revolving around the NeighbourLists class
+ * @author - Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see NeighbourLists
+ */
+public class NeighbourListsTests {
+
+    /**
+     * Test for the nearest neighbours
+     * <p>
+     * Checks the neighbours found by the tree match the ones found by checking every city
+     */
+    @Test
+    public void matchesFullSearchTest(){
+        //Creates a random set of cities, with repeats on the co-ordinates
+        Random random = new Random(7);
+        City[] cities = new City[300];
+        for(int i=0; i<cities.length; i++){
+            cities[i] = new City(random.nextInt(100), random.nextInt(100));
+        }
+        CityTable table = new CityTable(cities);
+        NeighbourLists lists = new NeighbourLists(table, 8);
+
+        for(int city=0; city<cities.length; city++){
+            for(int rank=0; rank<lists.getNumOfNeighbours(); rank++){
+                //Counts how many other cities are strictly closer than the neighbour found
+                double distance = cities[city].calcDistance(cities[lists.getNeighbour(city, rank)]);
+                int closer = 0;
+                for(int other=0; other<cities.length; other++){
+                    if(other != city && cities[city].calcDistance(cities[other]) < distance){
+                        closer++;
+                    }
+                }
+                assertTrue(closer <= rank);
+                assertNotEquals(city, lists.getNeighbour(city, rank));
+            }
+        }
+    }
+
+    /**
+     * Test for small tables
+     * <p>
+     * Checks the number of neighbours is capped at the number of other cities
+     */
+    @Test
+    public void smallTableTest(){
+        CityTable table = new CityTable(new City[]{new City(0,0), new City(10,0), new City(3,0)});
+        NeighbourLists lists = new NeighbourLists(table, 10);
+
+        //Checks the neighbours are in order of distance
+        assertEquals(lists.getNumOfNeighbours(), 2);
+        assertEquals(lists.getNeighbour(0, 0), 2);
+        assertEquals(lists.getNeighbour(0, 1), 1);
+    }
+}
@@ -2,7 +2,9 @@ package Tests;
 
 import Genetics.Chromosome;
 import Genetics.City;
+import Genetics.CityTable;
 import Genetics.Population;
+import Genetics.PopulationArena;
 import org.testng.annotations.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -11,9 +13,15 @@ import static org.junit.jupiter.api.Assertions.*;
  * @author - Aaron Luckett (aal16)
  * @version 1.0 - Initial Creation
  * @version 1.1 - Added tests to class
+ * @version 1.2 - Added tests for the population arena
+ * @version 1.3 - Added tests for the indexed population
+ * @version 1.4 - Added test for rejecting duplicate routes
+ * @version 1.5 - Added test for loading a population that is not full into the arena
+ * @version 1.6 - Chromosomes are created from a city table
  * @see Chromosome
  * @see Population
  * @see City
+ * @see PopulationArena
  */
 public class PopulationTests {
 
@@ -73,14 +81,14 @@ public class PopulationTests {
     public void addingChromosomeChecker(){
         //Create population
         Population pop4 = new Population(1);
-        pop4.add(new Chromosome(new City[] {new City(50,50)}, false));
+        pop4.add(new Chromosome(new CityTable(new City[] {new City(50,50)}), false));
 
         //Checks the chromosome has been added
         assertEquals(pop4.size(),1);
         assertNotEquals(pop4.size(), 0);
 
         //Try to add another chromosome
-        pop4.add(new Chromosome(new City[] {new City(50,50)}, false));
+        pop4.add(new Chromosome(new CityTable(new City[] {new City(50,50)}), false));
 
         //Check that it doesn't get added because population is full
         assertEquals(pop4.size(),1);
@@ -122,7 +130,7 @@ public class PopulationTests {
         //Create population
         Population pop6 = new Population(1);
         //Add chromosome and clear
-        pop6.add(new Chromosome(new City[] {new City(50,50)}, false));
+        pop6.add(new Chromosome(new CityTable(new City[] {new City(50,50)}), false));
         pop6.clear();
 
         //Check population has been cleared
@@ -140,7 +148,7 @@ public class PopulationTests {
         //Create population
         Population pop7 = new Population(1);
         City[] cityList = {new City(50,50)};
-        pop7.add(new Chromosome(cityList, false));
+        pop7.add(new Chromosome(new CityTable(cityList), false));
 
         //Checks city list has been retrieved correctly
         City[] cities = pop7.getCities();
@@ -156,7 +164,7 @@ public class PopulationTests {
     public void getChromeChecker(){
         //Create population
         Population pop8 = new Population(1);
-        Chromosome chrome = new Chromosome(new City[] {new City(50,50)}, false);
+        Chromosome chrome = new Chromosome(new CityTable(new City[] {new City(50,50)}), false);
         pop8.add(chrome);
 
         //Checks the chromosomes have been retrieved correctly
@@ -174,7 +182,7 @@ public class PopulationTests {
     public void bestDistanceChecker(){
         //Create population
         Population pop9 = new Population(1);
-        Chromosome chrome = new Chromosome(new City[] {new City(50,50), new City(55,55)}, false);
+        Chromosome chrome = new Chromosome(new CityTable(new City[] {new City(50,50), new City(55,55)}), false);
         pop9.add(chrome);
         int distance = pop9.getFittest();
 
@@ -191,7 +199,7 @@ public class PopulationTests {
     public void populationCopyChecker(){
         //Create population
         Population pop9 = new Population(1);
-        Chromosome chrome = new Chromosome(new City[] {new City(50,50), new City(55,55)}, false);
+        Chromosome chrome = new Chromosome(new CityTable(new City[] {new City(50,50), new City(55,55)}), false);
         pop9.add(chrome);
 
         //Checks the population has been copied correctly
@@ -207,10 +215,139 @@ public class PopulationTests {
     public void bestChromeChecker(){
         //Create population
         Population pop11 = new Population(1);
-        Chromosome chrome = new Chromosome(new City[] {new City(50,50), new City(55,55)}, false);
+        Chromosome chrome = new Chromosome(new CityTable(new City[] {new City(50,50), new City(55,55)}), false);
         pop11.add(chrome);
 
         //Checks the fittest chrome is returned
         assertEquals(pop11.getTheFittest(), chrome);
     }
+
+    /**
+     * Test for loading a population into an arena
+     * <p>
+     * Will check the arena holds the same routes and distances as the population
+     */
+    @Test
+    public void arenaLoadChecker(){
+        //Create population and arena
+        Population pop12 = Population.getRandomPopulation(8, 10, true);
+        PopulationArena arena = new PopulationArena(pop12);
+
+        //Checks the arena is the same size and has the same best and average distance
+        assertEquals(arena.size(), 10);
+        assertEquals(arena.getFittest(), pop12.getFittest());
+        assertEquals(arena.getAverageFitness(), pop12.getAverageFitness());
+    }
+
+    /**
+     * Test for swapping the generations in an arena
+     * <p>
+     * Will check the elites are kept and the new routes are measured when the arena swaps
+     */
+    @Test
+    public void arenaSwapChecker(){
+        //Create population and arena
+        Population pop13 = Population.getRandomPopulation(8, 4, true);
+        PopulationArena arena = new PopulationArena(pop13);
+        int best = arena.getFittest();
+
+        //Fills the next generation with the elite and copies of the first route
+        int[] route = new int[arena.getNumOfCities()];
+        arena.copyTour(0, route);
+        arena.copyElitesToNext(1);
+        while(arena.getNextSize() < arena.size()){
+            arena.addNext(route);
+        }
+        arena.swap();
+
+        //Checks the elite was kept and the copied routes have been measured
+        assertEquals(arena.getDistance(0), best);
+        assertEquals(arena.getDistance(1), new Chromosome(pop13.getCityTable(), route).getDistance());
+        assertEquals(arena.toPopulation().size(), 4);
+    }
+
+    /**
+     * Test for sorting the population
+     * <p>
+     * Will check the chromosomes are in order of distance once sorted and the best is found without sorting
+     */
+    @Test
+    public void sortByFitnessChecker(){
+        //Create population
+        Population pop14 = Population.getRandomPopulation(10, 30, true);
+        int best = pop14.getFittest();
+
+        //Checks the best is still the first chromosome once sorted
+        pop14.sortByFitness();
+        assertEquals(pop14.getDistance(0), best);
+        assertEquals(pop14.get(0), pop14.getTheFittest());
+        for(int i=1; i<pop14.size(); i++){
+            assertTrue(pop14.getDistance(i - 1) <= pop14.getDistance(i));
+        }
+    }
+
+    /**
+     * Test for removing the elite value
+     * <p>
+     * Will check the best chromosome is removed and the next best takes its place
+     */
+    @Test
+    public void removeEliteChecker(){
+        //Create population
+        Population pop15 = Population.getRandomPopulation(10, 5, true);
+        pop15.sortByFitness();
+        Chromosome best = pop15.get(0);
+        Chromosome second = pop15.get(1);
+
+        //Checks the best is removed and the next best becomes the fittest
+        assertEquals(pop15.removeEliteValue(), best);
+        assertEquals(pop15.size(), 4);
+        assertEquals(pop15.getTheFittest(), second);
+    }
+
+    /**
+     * Test for rejecting duplicate routes
+     * <p>
+     * Will check a route already in the population is turned away, even if it starts at a different city
+     */
+    @Test
+    public void rejectDuplicatesChecker(){
+        //Create population
+        Population pop16 = new Population(3);
+        pop16.setRejectDuplicates(true);
+        Chromosome chrome = new Chromosome(new CityTable(new City[] {new City(10,10), new City(50,20), new City(30,40)}), false);
+        CityTable table = chrome.getCityTable();
+
+        //Checks the same route backwards is not added
+        assertTrue(pop16.add(chrome));
+        assertFalse(pop16.add(new Chromosome(table, new int[] {2, 1, 0})));
+        assertEquals(pop16.size(), 1);
+
+        //Checks duplicates are allowed once turned off
+        pop16.setRejectDuplicates(false);
+        assertTrue(pop16.add(new Chromosome(table, new int[] {1, 2, 0})));
+        assertEquals(pop16.size(), 2);
+    }
+
+
+    /**
+     * Test for creating an arena from a population that is not full
+     * <p>
+     * Will check the arena refuses it rather than measuring the empty rows as routes of length 0
+     */
+    @Test
+    public void arenaNotFullChecker(){
+        //Create population with room for three routes but only one in it
+        Population pop17 = new Population(3);
+        CityTable table = new CityTable(new City[] {new City(10,10), new City(50,20), new City(30,40)});
+        pop17.add(new Chromosome(table, false));
+
+        assertThrows(IllegalArgumentException.class, () -> new PopulationArena(pop17));
+
+        //Checks the arena is created once the population is full
+        pop17.add(new Chromosome(table, true));
+        pop17.add(new Chromosome(table, true));
+        PopulationArena arena = new PopulationArena(pop17);
+        assertEquals(arena.size(), 3);
+    }
 }
@@ -0,0 +1,73 @@
+package Tests;
+
+import Genetics.TourHash;
+import Genetics.TourHashSet;
+import org.testng.annotations.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class containing tests revolving around the TourHash class
+ * @author - Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see TourHash
+ * @see TourHashSet
+ */
+public class TourHashTests {
+
+    /**
+     * Test for rotated and reversed routes
+     * <p>
+     * Checks the same route started at a different city or travelled backwards has the same hash
+     */
+    @Test
+    public void sameRouteTest(){
+        long hash = TourHash.hash(new int[] {0, 1, 2, 3, 4});
+
+        //Checks rotating and reversing the route does not change the hash
+        assertEquals(TourHash.hash(new int[] {2, 3, 4, 0, 1}), hash);
+        assertEquals(TourHash.hash(new int[] {4, 3, 2, 1, 0}), hash);
+
+        //Checks a different route has a different hash
+        assertNotEquals(TourHash.hash(new int[] {0, 2, 1, 3, 4}), hash);
+    }
+
+    /**
+     * Test for reversing part of a route
+     * <p>
+     * Checks the hash can be updated without hashing the whole route again
+     */
+    @Test
+    public void reverseChangeTest(){
+        int[] tour = {0, 1, 2, 3, 4, 5};
+        long hash = TourHash.hash(tour);
+        long change = TourHash.reverseChange(tour, 1, 3);
+
+        //Reverses the section by hand
+        int[] reversed = {0, 3, 2, 1, 4, 5};
+
+        //Checks the updated hash is the same as hashing the reversed route
+        assertEquals(hash + change, TourHash.hash(reversed));
+        assertEquals(TourHash.reverseChange(tour, 0, 5), 0);
+    }
+
+    /**
+     * Test for the set of hashes
+     * <p>
+     * Checks hashes are only added once and the set grows when needed
+     */
+    @Test
+    public void hashSetTest(){
+        TourHashSet set = new TourHashSet(2);
+
+        //Adds more hashes than the set was made for
+        for(long i=0; i<100; i++){
+            assertTrue(set.add(i * 31));
+        }
+
+        //Checks duplicates are turned away
+        assertFalse(set.add(0));
+        assertFalse(set.add(31 * 99));
+        assertTrue(set.contains(62));
+        assertEquals(set.size(), 100);
+    }
+}
@@ -0,0 +1,64 @@
+package Tests;
+
+import Genetics.Chromosome;
+import Genetics.City;
+import Genetics.CityTable;
+import Genetics.TourStorage;
+import org.testng.annotations.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class containing tests revolving around the TourStorage class
+ * @author - Aaron Luckett (aal16)
+ * @version 1.0 - Initial Creation
+ * @see TourStorage
+ * @see Chromosome
+ */
+public class TourStorageTests {
+
+    /**
+     * Test for picking the encoding
+     * <p>
+     * Checks the smallest type that can hold every city index is picked
+     */
+    @Test
+    public void encodingTest(){
+        assertEquals(TourStorage.Encoding.forCities(256), TourStorage.Encoding.BYTE);
+        assertEquals(TourStorage.Encoding.forCities(257), TourStorage.Encoding.SHORT);
+        assertEquals(TourStorage.Encoding.forCities(65536), TourStorage.Encoding.SHORT);
+        assertEquals(TourStorage.Encoding.forCities(65537), TourStorage.Encoding.INT);
+    }
+
+    /**
+     * Test for storing the largest city indexes
+     * <p>
+     * Checks the largest index each encoding can hold comes back out unchanged
+     */
+    @Test
+    public void largestIndexTest(){
+        int[] route = {0, 255};
+        TourStorage bytes = TourStorage.of(TourStorage.Encoding.BYTE, route);
+        assertEquals(bytes.get(1), 255);
+
+        route = new int[] {65535, 1};
+        TourStorage shorts = TourStorage.of(TourStorage.Encoding.SHORT, route);
+        int[] copy = new int[2];
+        shorts.read(0, copy, 0, 2);
+        assertArrayEquals(copy, route);
+    }
+
+    /**
+     * Test for chromosomes using compact storage
+     * <p>
+     * Checks a chromosome on a small instance gives back the same route it was created with
+     */
+    @Test
+    public void chromosomeRouteTest(){
+        CityTable table = new CityTable(new City[] {new City(10,10), new City(50,20), new City(30,40)});
+        assertEquals(table.getTourEncoding(), TourStorage.Encoding.BYTE);
+
+        Chromosome chrome = new Chromosome(table, new int[] {2, 0, 1});
+        assertArrayEquals(chrome.getTour(), new int[] {2, 0, 1});
+        assertEquals(chrome.getCityIndex(0), 2);
+    }
+}